@@ -16,6 +16,8 @@ import java.util.Locale;
 import java.util.TimeZone;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junitpioneer.jupiter.cartesian.CartesianTest;
 
 public class DefaultLocaleTimezoneExtensionDemo {
 
@@ -97,4 +99,29 @@ public class DefaultLocaleTimezoneExtensionDemo {
 	}
 	// end::default_timezone_class_level[]
 
+	// tag::locale_source[]
+	@ParameterizedTest
+	@LocaleSource({ "de-DE", "zh-Hant-TW" })
+	void test_with_locale_source(Locale locale) {
+		assertThat(Locale.getDefault()).isEqualTo(locale);
+	}
+
+	@ParameterizedTest
+	@TimeZoneSource(matches = "Europe/.*")
+	void test_with_time_zone_source(TimeZone timeZone) {
+		assertThat(TimeZone.getDefault()).isEqualTo(timeZone);
+	}
+	// end::locale_source[]
+
+	// tag::locale_source_cartesian[]
+	@CartesianTest
+	@WritesDefaultLocale
+	@WritesDefaultTimeZone
+	void test_with_locale_and_time_zone(@LocaleSource(matches = "(de|fr)-.*") Locale locale,
+			@TimeZoneSource({ "Europe/Berlin", "Europe/Paris" }) TimeZone timeZone) {
+		assertThat(Locale.getDefault()).isEqualTo(locale);
+		assertThat(TimeZone.getDefault()).isEqualTo(timeZone);
+	}
+	// end::locale_source_cartesian[]
+
 }
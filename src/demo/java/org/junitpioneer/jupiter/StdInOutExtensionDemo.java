@@ -10,11 +10,17 @@
 
 package org.junitpioneer.jupiter;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 
@@ -69,6 +75,64 @@ public class StdInOutExtensionDemo {
 	}
 	// end::stdio_both_replaced_and_verify[]
 
+	// tag::stdio_input_resource[]
+	@Test
+	@StdIo(inputResource = "sonnet.txt")
+	void inputFromResource(StdIn in) {
+		// `System.in` is replaced and the code under
+		// test reads the lines of `sonnet.txt`
+	}
+	// end::stdio_input_resource[]
+
+	// tag::stdio_max_captured_bytes[]
+	@Test
+	@StdIo(maxCapturedBytes = 1024 * 1024)
+	void chattyTest(StdOut out) {
+		// only the last MiB written to `System.out` is
+		// captured; `out.writtenBytes()` and
+		// `out.droppedBytes()` tell how much was written
+		// in total and how much of that was dropped
+	}
+	// end::stdio_max_captured_bytes[]
+
+	// tag::stdio_capture_to_file[]
+	@Test
+	@StdIo(captureToFile = true)
+	void goldenFile(StdOut out) throws IOException {
+		System.out.print("Hello, World");
+
+		Path expected = Paths.get("src/demo/resources/hello-world.txt");
+		assertThat(out.mismatch(expected)).isEqualTo(-1);
+	}
+	// end::stdio_capture_to_file[]
+
+	// tag::stdio_await_line[]
+	@Test
+	@StdIo
+	void serverStarts(StdOut out) throws InterruptedException {
+		new Thread(() -> System.out.println("Server started")).start();
+
+		Optional<String> started = out.awaitLine(line -> line.contains("started"), Duration.ofSeconds(10));
+		assertThat(started).isPresent();
+	}
+	// end::stdio_await_line[]
+
+	// these tests only pass with `junitpioneer.std-io.isolate-threads=true`,
+	// so they're in a nested class that isn't executed with the demos
+	static class IsolatedStdIoDemo {
+
+		// tag::stdio_isolated[]
+		@Test
+		@IsolatedStdIo
+		void printsGreeting(StdOut out) {
+			System.out.println("Hello, World");
+
+			assertThat(out.capturedLines()).containsExactly("Hello, World");
+		}
+		// end::stdio_isolated[]
+
+	}
+
 	// tag::stdio_edge_cases_ExampleConsoleReader[]
 	class ConsoleReader {
 
@@ -10,6 +10,7 @@
 
 package org.junitpioneer.jupiter;
 
+import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 
 public class StopwatchExtensionDemo {
@@ -39,4 +40,51 @@ public class StopwatchExtensionDemo {
 	}
 	// end::class[]
 
+	// tag::template[]
+	@RepeatedTest(100)
+	@Stopwatch
+	void repeatedTest() {
+		// execution time of each repetition will be reported
+		// and, after the last one, their statistics
+	}
+	// end::template[]
+
+	// tag::budget[]
+	@Test
+	@Stopwatch(maxDurationMs = 500)
+	void budgetedTest() {
+		// fails if it takes longer than 500 ms
+	}
+	// end::budget[]
+
+	// tag::percentile_budget[]
+	@RepeatedTest(100)
+	@Stopwatch(maxDurationMs = 10, percentile = 95)
+	void budgetedRepeatedTest() {
+		// fails after the last repetition if the
+		// 95th percentile took longer than 10 ms
+	}
+	// end::percentile_budget[]
+
+	// tag::iterations[]
+	@Test
+	@Stopwatch(warmupIterations = 1_000, iterations = 100)
+	void benchmark(Blackhole blackhole) {
+		// the test is executed 1000 times without being
+		// measured and then 100 times while it is; the
+		// result is consumed, so it can't be optimized away
+		blackhole.consume(Math.log(42));
+	}
+	// end::iterations[]
+
+	// tag::resources[]
+	@Test
+	@Stopwatch(measureResources = true, maxAllocatedBytes = 1_024)
+	void allocationFreeTest() {
+		// reports allocated memory, CPU time, and garbage
+		// collections, and fails if the test allocated
+		// more than 1 KiB
+	}
+	// end::resources[]
+
 }
@@ -68,4 +68,23 @@ public class SystemPropertyExtensionDemo {
 	}
 	// end::systemproperty_parameter[]
 
+	// this class only runs with `junitpioneer.system-properties.isolate-threads=true`
+	static class IsolatedSystemPropertyTestCases {
+
+		// tag::systemproperty_isolated[]
+		@Test
+		@SetIsolatedSystemProperty(key = "some property", value = "one value")
+		void testSettingPropertyForThisThread() {
+			assertThat(System.getProperty("some property")).isEqualTo("one value");
+		}
+
+		@Test
+		@SetIsolatedSystemProperty(key = "some property", value = "another value")
+		void testSettingSamePropertyInParallel() {
+			assertThat(System.getProperty("some property")).isEqualTo("another value");
+		}
+		// end::systemproperty_isolated[]
+
+	}
+
 }
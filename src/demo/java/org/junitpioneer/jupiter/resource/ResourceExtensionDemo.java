@@ -52,6 +52,17 @@ public class ResourceExtensionDemo {
 	// end::create_new_resource_with_arg_demo[]
 	// @formatter:on
 
+	// @formatter:off
+	// tag::create_new_resource_from_template_demo[]
+	void testWithTemplate(
+			@New(value = TemporaryDirectory.class, arguments = { "customPrefix", "classpath:fixtures" })
+			Path tempDir) {
+		// Test code goes here, e.g.,
+		assertTrue(Files.exists(tempDir.resolve("fixture.txt")));
+	}
+	// end::create_new_resource_from_template_demo[]
+	// @formatter:on
+
 	// @formatter:off
 	// tag::create_shared_resource_demo[]
 	void sharedResourceTest1(
@@ -93,6 +104,31 @@ public class ResourceExtensionDemo {
 	// end::create_multiple_shared_resources_demo[]
 	// @formatter:on
 
+	// @formatter:off
+	// tag::create_reference_counted_shared_resource_demo[]
+	void referenceCountedResource1(
+			@Shared(
+					factory = TemporaryDirectory.class,
+					name = "largeFixtures",
+					scope = Shared.Scope.TEST_CLASS,
+					referenceCounted = true)
+			Path largeFixtures) {
+		// Test code using the shared resource...
+	}
+
+	void referenceCountedResource2(
+			@Shared(
+					factory = TemporaryDirectory.class,
+					name = "largeFixtures",
+					scope = Shared.Scope.TEST_CLASS,
+					referenceCounted = true)
+			Path largeFixtures) {
+		// Once this test and `referenceCountedResource1` finished,
+		// "largeFixtures" is closed - even if other tests are still running.
+	}
+	// end::create_reference_counted_shared_resource_demo[]
+	// @formatter:on
+
 }
 
 // @formatter:off
@@ -128,3 +164,39 @@ class SecondTest {
 }
 // end::create_global_shared_resource_demo_second[]
 // @formatter:on
+
+// @formatter:off
+// tag::create_inter_process_directory_demo_factory[]
+class SearchIndex extends InterProcessDirectory {
+
+	@Override
+	protected Path leaseDirectory() {
+		// all forks of the test run use the same directory
+		return Paths.get("build", "search-index");
+	}
+
+	@Override
+	protected void populate(Path directory) throws Exception {
+		// build the (large) index in `directory`...
+	}
+
+}
+// end::create_inter_process_directory_demo_factory[]
+// @formatter:on
+
+// @formatter:off
+// tag::create_inter_process_directory_demo_test[]
+class SearchTest {
+
+	void test(
+			@Shared(
+					factory = SearchIndex.class,
+					name = "searchIndex",
+					scope = Shared.Scope.GLOBAL)
+			Path searchIndex) {
+		// Test code that reads (but never writes) the index...
+	}
+
+}
+// end::create_inter_process_directory_demo_test[]
+// @formatter:on
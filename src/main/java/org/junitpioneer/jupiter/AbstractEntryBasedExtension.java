@@ -10,20 +10,26 @@
 
 package org.junitpioneer.jupiter;
 
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toMap;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
 import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -50,6 +56,33 @@ import org.junitpioneer.internal.PioneerUtils;
 abstract class AbstractEntryBasedExtension<K, V, C extends Annotation, S extends Annotation>
 		implements BeforeEachCallback, AfterEachCallback, BeforeAllCallback, AfterAllCallback {
 
+	/*
+	 * Class-level annotations apply to every test in the class, so parsing them again and again before each
+	 * test adds up for large classes. Instead, the plans are cached by extension type (because each extension
+	 * parses different annotations) and then by the class that declares the annotated element (as a
+	 * ClassValue, so the cache doesn't keep test classes from being unloaded).
+	 */
+	private static final ClassValue<ClassValue<ConcurrentMap<AnnotatedElement, EntriesPlan<?, ?>>>> PLANS = //
+		new ClassValue<ClassValue<ConcurrentMap<AnnotatedElement, EntriesPlan<?, ?>>>>() {
+
+			@Override
+			protected ClassValue<ConcurrentMap<AnnotatedElement, EntriesPlan<?, ?>>> computeValue(
+					Class<?> extensionType) {
+				return new ClassValue<ConcurrentMap<AnnotatedElement, EntriesPlan<?, ?>>>() {
+
+					@Override
+					protected ConcurrentMap<AnnotatedElement, EntriesPlan<?, ?>> computeValue(Class<?> testClass) {
+						return new ConcurrentHashMap<>();
+					}
+
+				};
+			}
+
+		};
+
+	private final Class<C> clearAnnotationType = getActualTypeArgumentAt(2);
+	private final Class<S> setAnnotationType = getActualTypeArgumentAt(3);
+
 	@Override
 	public void beforeAll(ExtensionContext context) {
 		applyForAllContexts(context);
@@ -68,41 +101,57 @@ abstract class AbstractEntryBasedExtension<K, V, C extends Annotation, S extends
 		 */
 		List<ExtensionContext> contexts = PioneerUtils.findAllContexts(originalContext);
 		Collections.reverse(contexts);
-		contexts.forEach(currentContext -> clearAndSetEntries(currentContext, originalContext));
+		Map<ExtensionContext, EntriesPlan<K, V>> plans = new LinkedHashMap<>();
+		contexts
+				.forEach(currentContext -> currentContext
+						.getElement()
+						.map(this::getEntriesPlan)
+						.filter(plan -> !plan.isEmpty())
+						.ifPresent(plan -> plans.put(currentContext, plan)));
+		if (plans.isEmpty())
+			return;
+
+		// take a single snapshot of all affected entries before any of them is changed,
+		// so they can all be restored at once, no matter how many contexts change them
+		storeOriginalEntries(originalContext, plans.values());
+		plans.forEach((currentContext, plan) -> {
+			reportWarning(currentContext);
+			clearAndSetEntries(plan.entriesToClear, plan.entriesToSet);
+		});
 	}
 
-	private void clearAndSetEntries(ExtensionContext currentContext, ExtensionContext originalContext) {
-		currentContext.getElement().ifPresent(element -> {
-			Set<K> entriesToClear;
-			Map<K, V> entriesToSet;
-
-			try {
-				entriesToClear = findEntriesToClear(element);
-				entriesToSet = findEntriesToSet(element);
-				preventClearAndSetSameEntries(entriesToClear, entriesToSet.keySet());
-			}
-			catch (IllegalStateException ex) {
-				throw new ExtensionConfigurationException("Don't clear/set the same entry more than once.", ex);
-			}
-
-			if (entriesToClear.isEmpty() && entriesToSet.isEmpty())
-				return;
+	@SuppressWarnings("unchecked")
+	private EntriesPlan<K, V> getEntriesPlan(AnnotatedElement element) {
+		Class<?> declaringClass = element instanceof Member ? ((Member) element).getDeclaringClass()
+				: (Class<?>) element;
+		ConcurrentMap<AnnotatedElement, EntriesPlan<?, ?>> plans = PLANS.get(getClass()).get(declaringClass);
+		// on Java 8, `computeIfAbsent` locks even if the plan is present, so look it up first
+		EntriesPlan<?, ?> plan = plans.get(element);
+		if (plan == null)
+			plan = plans.computeIfAbsent(element, this::findEntriesPlan);
+		return (EntriesPlan<K, V>) plan;
+	}
 
-			reportWarning(currentContext);
-			storeOriginalEntries(originalContext, entriesToClear, entriesToSet.keySet());
-			clearEntries(entriesToClear);
-			setEntries(entriesToSet);
-		});
+	private EntriesPlan<K, V> findEntriesPlan(AnnotatedElement element) {
+		try {
+			Set<K> entriesToClear = findEntriesToClear(element);
+			Map<K, V> entriesToSet = findEntriesToSet(element);
+			preventClearAndSetSameEntries(entriesToClear, entriesToSet.keySet());
+			return new EntriesPlan<>(unmodifiableSet(entriesToClear), unmodifiableMap(entriesToSet));
+		}
+		catch (IllegalStateException ex) {
+			throw new ExtensionConfigurationException("Don't clear/set the same entry more than once.", ex);
+		}
 	}
 
 	private Set<K> findEntriesToClear(AnnotatedElement element) {
-		return findAnnotations(element, getClearAnnotationType())
+		return findAnnotations(element, clearAnnotationType)
 				.map(clearKeyMapper())
 				.collect(PioneerUtils.distinctToSet());
 	}
 
 	private Map<K, V> findEntriesToSet(AnnotatedElement element) {
-		return findAnnotations(element, getSetAnnotationType()).collect(toMap(setKeyMapper(), setValueMapper()));
+		return findAnnotations(element, setAnnotationType).collect(toMap(setKeyMapper(), setValueMapper()));
 	}
 
 	private <A extends Annotation> Stream<A> findAnnotations(AnnotatedElement element, Class<A> clazz) {
@@ -110,18 +159,9 @@ abstract class AbstractEntryBasedExtension<K, V, C extends Annotation, S extends
 	}
 
 	@SuppressWarnings("unchecked")
-	private Class<C> getClearAnnotationType() {
-		return (Class<C>) getActualTypeArgumentAt(2);
-	}
-
-	@SuppressWarnings("unchecked")
-	private Class<S> getSetAnnotationType() {
-		return (Class<S>) getActualTypeArgumentAt(3);
-	}
-
-	private Type getActualTypeArgumentAt(int index) {
+	private <A extends Annotation> Class<A> getActualTypeArgumentAt(int index) {
 		ParameterizedType abstractEntryBasedExtensionType = (ParameterizedType) getClass().getGenericSuperclass();
-		return abstractEntryBasedExtensionType.getActualTypeArguments()[index];
+		return (Class<A>) abstractEntryBasedExtensionType.getActualTypeArguments()[index];
 	}
 
 	private void preventClearAndSetSameEntries(Collection<K> entriesToClear, Collection<K> entriesToSet) {
@@ -135,17 +175,13 @@ abstract class AbstractEntryBasedExtension<K, V, C extends Annotation, S extends
 				"Cannot clear and set the following entries at the same time: " + duplicateEntries);
 	}
 
-	private void storeOriginalEntries(ExtensionContext context, Collection<K> entriesToClear,
-			Collection<K> entriesToSet) {
-		getStore(context).put(getStoreKey(context), new EntriesBackup(entriesToClear, entriesToSet));
-	}
-
-	private void clearEntries(Collection<K> entriesToClear) {
-		entriesToClear.forEach(this::clearEntry);
-	}
-
-	private void setEntries(Map<K, V> entriesToSet) {
-		entriesToSet.forEach(this::setEntry);
+	private void storeOriginalEntries(ExtensionContext context, Collection<EntriesPlan<K, V>> plans) {
+		Set<K> entries = new HashSet<>();
+		plans.forEach(plan -> {
+			entries.addAll(plan.entriesToClear);
+			entries.addAll(plan.entriesToSet.keySet());
+		});
+		getStore(context).put(getStoreKey(context), new EntriesBackup(entries));
 	}
 
 	@Override
@@ -159,11 +195,7 @@ abstract class AbstractEntryBasedExtension<K, V, C extends Annotation, S extends
 	}
 
 	private void restoreForAllContexts(ExtensionContext originalContext) {
-		// restore from innermost to outermost
-		PioneerUtils.findAllContexts(originalContext).forEach(__ -> restoreOriginalEntries(originalContext));
-	}
-
-	private void restoreOriginalEntries(ExtensionContext originalContext) {
+		// the backup covers the entries of all contexts, so restoring it once suffices
 		getStore(originalContext)
 				.getOrDefault(getStoreKey(originalContext), EntriesBackup.class, new EntriesBackup())
 				.restoreBackup();
@@ -177,28 +209,54 @@ abstract class AbstractEntryBasedExtension<K, V, C extends Annotation, S extends
 		return context.getUniqueId();
 	}
 
+	/**
+	 * The entries an annotated element clears and sets. Plans are immutable, so they can be cached.
+	 */
+	private static final class EntriesPlan<K, V> {
+
+		private final Set<K> entriesToClear;
+		private final Map<K, V> entriesToSet;
+
+		EntriesPlan(Set<K> entriesToClear, Map<K, V> entriesToSet) {
+			this.entriesToClear = entriesToClear;
+			this.entriesToSet = entriesToSet;
+		}
+
+		boolean isEmpty() {
+			return entriesToClear.isEmpty() && entriesToSet.isEmpty();
+		}
+
+	}
+
+	/**
+	 * A snapshot of the original values of entries (with {@code null} for absent ones)
+	 * that, on restore, only touches the entries whose value changed.
+	 */
 	private class EntriesBackup {
 
-		private final Set<K> entriesToClear = new HashSet<>();
-		private final Map<K, V> entriesToSet = new HashMap<>();
+		private final Map<K, V> originalEntries = new HashMap<>();
 
 		public EntriesBackup() {
 			// empty backup
 		}
 
-		public EntriesBackup(Collection<K> entriesToClear, Collection<K> entriesToSet) {
-			Stream.concat(entriesToClear.stream(), entriesToSet.stream()).forEach(entry -> {
-				V backup = AbstractEntryBasedExtension.this.getEntry(entry);
-				if (backup == null)
-					this.entriesToClear.add(entry);
-				else
-					this.entriesToSet.put(entry, backup);
-			});
+		public EntriesBackup(Collection<K> entries) {
+			entries.forEach(entry -> originalEntries.put(entry, AbstractEntryBasedExtension.this.getEntry(entry)));
 		}
 
 		public void restoreBackup() {
-			entriesToClear.forEach(AbstractEntryBasedExtension.this::clearEntry);
-			entriesToSet.forEach(AbstractEntryBasedExtension.this::setEntry);
+			Set<K> entriesToClear = new HashSet<>();
+			Map<K, V> entriesToSet = new HashMap<>();
+			originalEntries.forEach((entry, originalValue) -> {
+				if (Objects.equals(AbstractEntryBasedExtension.this.getEntry(entry), originalValue))
+					return;
+				if (originalValue == null)
+					entriesToClear.add(entry);
+				else
+					entriesToSet.put(entry, originalValue);
+			});
+			if (!entriesToClear.isEmpty() || !entriesToSet.isEmpty())
+				AbstractEntryBasedExtension.this.clearAndSetEntries(entriesToClear, entriesToSet);
 		}
 
 	}
@@ -233,6 +291,16 @@ abstract class AbstractEntryBasedExtension<K, V, C extends Annotation, S extends
 	 */
 	protected abstract void setEntry(K key, V value);
 
+	/**
+	 * Removes the entries indicated by the specified keys and then sets the specified entries.
+	 * By default, this {@link #clearEntry(Object) clears} and {@link #setEntry(Object, Object) sets}
+	 * them one by one; override to apply them in a single pass.
+	 */
+	protected void clearAndSetEntries(Collection<K> entriesToClear, Map<K, V> entriesToSet) {
+		entriesToClear.forEach(this::clearEntry);
+		entriesToSet.forEach(this::setEntry);
+	}
+
 	/**
 	 * Reports a warning about potentially unsafe practices.
 	 */
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+/**
+ * Consumes values that a test computes while {@link Stopwatch @Stopwatch} measures it, so the JIT compiler
+ * can't optimize the computation away because its result is never used.
+ *
+ * <p>Test methods can't return values, so a test that's measured with {@link Stopwatch#iterations()} can
+ * have a {@code Blackhole} parameter and pass its results to it instead.</p>
+ *
+ * <p>For details and examples, see
+ * <a href="https://junit-pioneer.org/docs/stopwatch/" target="_top">the documentation on <code>@Stopwatch</code></a>.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public final class Blackhole {
+
+	// writing to volatile fields can't be optimized away, but is cheap compared to most computations
+	private volatile Object objectSink;
+	private volatile long longSink;
+	private volatile double doubleSink;
+
+	Blackhole() {
+		// only the extension creates blackholes
+	}
+
+	/**
+	 * Consumes the given value.
+	 *
+	 * @param value the value to consume
+	 */
+	public void consume(Object value) {
+		objectSink = value;
+	}
+
+	/**
+	 * Consumes the given value (and, by widening, {@code int}, {@code short}, {@code char}, and {@code byte} values).
+	 *
+	 * @param value the value to consume
+	 */
+	public void consume(long value) {
+		longSink = value;
+	}
+
+	/**
+	 * Consumes the given value (and, by widening, {@code float} values).
+	 *
+	 * @param value the value to consume
+	 */
+	public void consume(double value) {
+		doubleSink = value;
+	}
+
+}
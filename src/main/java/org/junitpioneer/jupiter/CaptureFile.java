@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+/**
+ * A file that {@link StdOutputStream} writes the captured bytes to instead of keeping them in memory.
+ *
+ * <p>Writes are collected in a direct buffer, so the channel is only written to once the buffer is
+ * full (or the bytes are read), and reads come straight from the channel or a mapping of the file.</p>
+ */
+final class CaptureFile implements CloseableResource {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Path path;
+	private final boolean temporary;
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/**
+	 * Creates a new file in the given directory or, if that's {@code null}, a temporary file that is deleted
+	 * when this is closed.
+	 */
+	static CaptureFile create(Path directory, String prefix, String suffix) throws IOException {
+		if (directory == null)
+			return new CaptureFile(Files.createTempFile(prefix, suffix), true);
+		Files.createDirectories(directory);
+		return new CaptureFile(Files.createTempFile(directory, prefix, suffix), false);
+	}
+
+	private CaptureFile(Path path, boolean temporary) throws IOException {
+		this.path = path;
+		this.temporary = temporary;
+		this.channel = FileChannel.open(path, READ, WRITE, TRUNCATE_EXISTING);
+	}
+
+	Path path() {
+		return path;
+	}
+
+	void write(int b) {
+		if (!buffer.hasRemaining())
+			flush();
+		buffer.put((byte) b);
+	}
+
+	void write(byte[] b, int off, int len) {
+		if (len > buffer.remaining())
+			flush();
+		// writing large arrays into the buffer first would only copy them once more
+		if (len > buffer.capacity())
+			writeFully(ByteBuffer.wrap(b, off, len));
+		else
+			buffer.put(b, off, len);
+	}
+
+	void flush() {
+		buffer.flip();
+		writeFully(buffer);
+		buffer.clear();
+	}
+
+	private void writeFully(ByteBuffer bytes) {
+		try {
+			while (bytes.hasRemaining())
+				channel.write(bytes);
+		}
+		catch (IOException exception) {
+			throw new UncheckedIOException("Could not write captured bytes to " + path, exception);
+		}
+	}
+
+	/**
+	 * Reads bytes starting at the given position in the file until the target is full.
+	 */
+	void read(long position, ByteBuffer target) {
+		flush();
+		try {
+			long readPosition = position;
+			while (target.hasRemaining()) {
+				int reading = channel.read(target, readPosition);
+				if (reading == -1)
+					throw new IllegalArgumentException(
+						"Could not read " + target.remaining() + " more bytes from " + path);
+				readPosition += reading;
+			}
+		}
+		catch (IOException exception) {
+			throw new UncheckedIOException("Could not read captured bytes from " + path, exception);
+		}
+	}
+
+	ByteBuffer map(long position, long size) {
+		flush();
+		try {
+			return channel.map(MapMode.READ_ONLY, position, size);
+		}
+		catch (IOException exception) {
+			throw new UncheckedIOException("Could not map captured bytes from " + path, exception);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+			channel.close();
+		}
+		finally {
+			if (temporary)
+				Files.deleteIfExists(path);
+		}
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+
+package org.junitpioneer.jupiter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * {@code @ClearIsolatedSystemProperty} is a JUnit Jupiter extension to clear the value of a
+ * system property only for the thread that executes a test (and threads it starts).
+ *
+ * <p>It works like {@link ClearSystemProperty @ClearSystemProperty}, but requires the configuration
+ * parameter {@code junitpioneer.system-properties.isolate-threads} to be {@code true}. Because the
+ * global system properties stay unchanged, tests annotated with {@code @ClearIsolatedSystemProperty}
+ * or {@link SetIsolatedSystemProperty @SetIsolatedSystemProperty} can run in parallel with each
+ * other and with tests annotated with {@link ReadsSystemProperty @ReadsSystemProperty}.</p>
+ *
+ * <p>For more details and examples, see
+ * <a href="https://junit-pioneer.org/docs/system-properties/" target="_top">the documentation on <code>@ClearSystemProperty and @SetSystemProperty</code></a>.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Inherited
+@Repeatable(ClearIsolatedSystemProperty.ClearIsolatedSystemProperties.class)
+@ReadsSystemProperty
+@ExtendWith(IsolatedSystemPropertyExtension.class)
+public @interface ClearIsolatedSystemProperty {
+
+	/**
+	 * The key of the system property to be cleared.
+	 */
+	String key();
+
+	/**
+	 * Containing annotation of repeatable {@code @ClearIsolatedSystemProperty}.
+	 */
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.METHOD, ElementType.TYPE })
+	@Inherited
+	@ReadsSystemProperty
+	@ExtendWith(IsolatedSystemPropertyExtension.class)
+	@interface ClearIsolatedSystemProperties {
+
+		ClearIsolatedSystemProperty[] value();
+
+	}
+
+}
@@ -10,6 +10,7 @@
 
 package org.junitpioneer.jupiter;
 
+import java.lang.annotation.Annotation;
 import java.util.TimeZone;
 
 import org.junit.jupiter.api.extension.AfterEachCallback;
@@ -34,7 +35,7 @@ class DefaultTimeZoneExtension implements BeforeEachCallback, AfterEachCallback
 	}
 
 	private void setDefaultTimeZone(Store store, DefaultTimeZone annotation) {
-		TimeZone defaultTimeZone = createTimeZone(annotation.value());
+		TimeZone defaultTimeZone = createTimeZone(DefaultTimeZone.class, annotation.value());
 		// defer storing the current default time zone until the new time zone could be created from the configuration
 		// (this prevents cases where misconfigured extensions store default time zone now and restore it later,
 		// which leads to race conditions in our tests)
@@ -42,15 +43,15 @@ class DefaultTimeZoneExtension implements BeforeEachCallback, AfterEachCallback
 		TimeZone.setDefault(defaultTimeZone);
 	}
 
-	private static TimeZone createTimeZone(String timeZoneId) {
+	static TimeZone createTimeZone(Class<? extends Annotation> annotationType, String timeZoneId) {
 		TimeZone configuredTimeZone = TimeZone.getTimeZone(timeZoneId);
 		// TimeZone::getTimeZone returns with GMT as fallback if the given ID cannot be understood
 		if (configuredTimeZone.equals(TimeZone.getTimeZone("GMT")) && !timeZoneId.equals("GMT")) {
 			throw new ExtensionConfigurationException(String
-					.format("@DefaultTimeZone not configured correctly. "
+					.format("@%s not configured correctly. "
 							+ "Could not find the specified time zone + '%s'. "
 							+ "Please use correct identifiers, e.g. \"GMT\" for Greenwich Mean Time.",
-						timeZoneId));
+						annotationType.getSimpleName(), timeZoneId));
 		}
 		return configuredTimeZone;
 	}
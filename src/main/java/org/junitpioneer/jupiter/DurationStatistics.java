@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import java.util.Arrays;
+
+/**
+ * Statistics over durations in nanoseconds, e.g. of the invocations of a test template.
+ *
+ * <p>Percentiles come from a histogram in the style of HdrHistogram: below {@code SUB_BUCKETS}, every value
+ * has its own bucket and above, every power of two is split into {@code SUB_BUCKETS} buckets of equal width.
+ * Percentiles are hence accurate to about 3% while recording a duration takes constant time and the
+ * histogram's size doesn't depend on the number of durations.</p>
+ *
+ * <p>Only if the durations themselves are needed, e.g. to compare them to a {@link StopwatchBaseline baseline},
+ * they are kept, too.</p>
+ */
+class DurationStatistics {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	// durations have at most 63 bits, so the largest shift (see `bucket`) is `62 - SUB_BUCKET_BITS`
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+	private long count;
+	private long min = Long.MAX_VALUE;
+	private long max;
+	private long sum;
+
+	// `null` if the durations aren't kept
+	private long[] durations;
+
+	DurationStatistics() {
+		this(false);
+	}
+
+	DurationStatistics(boolean keepDurations) {
+		this.durations = keepDurations ? new long[16] : null;
+	}
+
+	synchronized void record(long nanos) {
+		long duration = Math.max(nanos, 0);
+		if (durations != null) {
+			if (count == durations.length)
+				durations = Arrays.copyOf(durations, durations.length * 2);
+			durations[(int) count] = duration;
+		}
+		counts[bucket(duration)]++;
+		count++;
+		min = Math.min(min, duration);
+		max = Math.max(max, duration);
+		sum += duration;
+	}
+
+	synchronized long count() {
+		return count;
+	}
+
+	/**
+	 * Returns the recorded durations in the order they were recorded or, if they aren't kept, an empty array.
+	 */
+	synchronized long[] durations() {
+		return durations == null ? new long[0] : Arrays.copyOf(durations, (int) count);
+	}
+
+	synchronized long min() {
+		return count == 0 ? 0 : min;
+	}
+
+	synchronized long max() {
+		return max;
+	}
+
+	synchronized long mean() {
+		return count == 0 ? 0 : sum / count;
+	}
+
+	/**
+	 * Returns the smallest duration that at least the given percentage of durations don't exceed
+	 * (up to the histogram's precision).
+	 */
+	synchronized long percentile(double percentage) {
+		if (count == 0)
+			return 0;
+
+		long rank = Math.max((long) Math.ceil(percentage / 100 * count), 1);
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += counts[bucket];
+			// the highest value in the bucket is the one that's guaranteed to not be exceeded
+			if (seen >= rank)
+				return Math.max(Math.min(highestValue(bucket), max), min);
+		}
+		return max;
+	}
+
+	static int bucket(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		// the value's highest `SUB_BUCKET_BITS + 1` bits select the sub-bucket
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >> shift) - SUB_BUCKETS);
+	}
+
+	static long highestValue(int bucket) {
+		return bucket == BUCKETS - 1 ? Long.MAX_VALUE : lowestValue(bucket + 1) - 1;
+	}
+
+	static long lowestValue(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		int shift = bucket / SUB_BUCKETS - 1;
+		return (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+	}
+
+}
@@ -10,6 +10,8 @@
 
 package org.junitpioneer.jupiter;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
@@ -58,6 +60,11 @@ class EnvironmentVariableExtension
 		EnvironmentVariableUtils.clear(key);
 	}
 
+	@Override
+	protected void clearAndSetEntries(Collection<String> entriesToClear, Map<String, String> entriesToSet) {
+		EnvironmentVariableUtils.clearAndSet(entriesToClear, entriesToSet);
+	}
+
 	@Override
 	protected String getEntry(String key) {
 		return System.getenv(key);
@@ -10,9 +10,16 @@
 
 package org.junitpioneer.jupiter;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
+
 import java.lang.reflect.Field;
+import java.lang.reflect.ReflectPermission;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Consumer;
 
 import org.junit.jupiter.api.extension.ExtensionConfigurationException;
 
@@ -22,6 +29,9 @@ import org.junit.jupiter.api.extension.ExtensionConfigurationException;
  */
 class EnvironmentVariableUtils {
 
+	// the internal maps that back the environment variables
+	private static volatile List<Map<String, String>> environmentVariablesMaps;
+
 	private EnvironmentVariableUtils() {
 		// private constructor to prevent instantiation of utility class
 	}
@@ -33,7 +43,7 @@ class EnvironmentVariableUtils {
 	 * @param value of the environment variable
 	 */
 	public static void set(String name, String value) {
-		modifyEnvironmentVariables(map -> map.put(name, value));
+		clearAndSet(Collections.emptySet(), Collections.singletonMap(name, value));
 	}
 
 	/**
@@ -42,22 +52,66 @@ class EnvironmentVariableUtils {
 	 * @param name of the environment variable
 	 */
 	public static void clear(String name) {
-		modifyEnvironmentVariables(map -> map.remove(name));
+		clearAndSet(Collections.singleton(name), Collections.emptyMap());
+	}
+
+	/**
+	 * Clear and set several environment variables in one pass.
+	 *
+	 * @param namesToClear of the environment variables to clear
+	 * @param entriesToSet names and values of the environment variables to set
+	 */
+	public static void clearAndSet(Collection<String> namesToClear, Map<String, String> entriesToSet) {
+		checkReflectPermission();
+		for (Map<String, String> environmentVariables : environmentVariablesMaps()) {
+			namesToClear.forEach(environmentVariables::remove);
+			environmentVariables.putAll(entriesToSet);
+		}
 	}
 
-	private static void modifyEnvironmentVariables(Consumer<Map<String, String>> consumer) {
+	/*
+	 * Once the maps are cached, no further reflection is needed to modify them, so a security manager would no
+	 * longer be consulted. To keep requiring the same permission as before, it is checked explicitly.
+	 */
+	@SuppressWarnings("removal")
+	private static void checkReflectPermission() {
+		SecurityManager securityManager = System.getSecurityManager();
+		if (securityManager != null)
+			securityManager.checkPermission(new ReflectPermission("suppressAccessChecks"));
+	}
+
+	/*
+	 * Finding the maps requires reflection, which is comparatively slow and, depending on the operating system,
+	 * fails for one of the two approaches. Hence, the maps are only looked up once. If that fails, it isn't cached,
+	 * though, so every attempt to modify environment variables reports the failure.
+	 */
+	private static List<Map<String, String>> environmentVariablesMaps() {
+		List<Map<String, String>> maps = environmentVariablesMaps;
+		if (maps == null) {
+			synchronized (EnvironmentVariableUtils.class) {
+				maps = environmentVariablesMaps;
+				if (maps == null) {
+					maps = findEnvironmentVariablesMaps();
+					environmentVariablesMaps = maps;
+				}
+			}
+		}
+		return maps;
+	}
+
+	private static List<Map<String, String>> findEnvironmentVariablesMaps() {
 		try {
-			setInProcessEnvironmentClass(consumer);
+			return findInProcessEnvironmentClass();
 		}
 		catch (ReflectiveOperationException ex) {
-			trySystemEnvClass(consumer, ex);
+			return trySystemEnvClass(ex);
 		}
 	}
 
-	private static void trySystemEnvClass(Consumer<Map<String, String>> consumer,
+	private static List<Map<String, String>> trySystemEnvClass(
 			ReflectiveOperationException processEnvironmentClassEx) {
 		try {
-			setInSystemEnvClass(consumer);
+			return findInSystemEnvClass();
 		}
 		catch (ReflectiveOperationException ex) {
 			ex.addSuppressed(processEnvironmentClassEx);
@@ -68,8 +122,7 @@ class EnvironmentVariableUtils {
 	/*
 	 * Works on Windows
 	 */
-	private static void setInProcessEnvironmentClass(Consumer<Map<String, String>> consumer)
-			throws ReflectiveOperationException {
+	private static List<Map<String, String>> findInProcessEnvironmentClass() throws ReflectiveOperationException {
 		Class<?> processEnvironmentClass = Class.forName("java.lang.ProcessEnvironment");
 		// The order of operations is critical here: On some operating systems, theEnvironment is present but
 		// theCaseInsensitiveEnvironment is not present. In such cases, this method must throw a
@@ -78,17 +131,15 @@ class EnvironmentVariableUtils {
 		Map<String, String> theEnvironment = getFieldValue(processEnvironmentClass, null, "theEnvironment");
 		Map<String, String> theCaseInsensitiveEnvironment = getFieldValue(processEnvironmentClass, null,
 			"theCaseInsensitiveEnvironment");
-		consumer.accept(theEnvironment);
-		consumer.accept(theCaseInsensitiveEnvironment);
+		return unmodifiableList(asList(theEnvironment, theCaseInsensitiveEnvironment));
 	}
 
 	/*
 	 * Works on Linux and OSX
 	 */
-	private static void setInSystemEnvClass(Consumer<Map<String, String>> consumer)
-			throws ReflectiveOperationException {
+	private static List<Map<String, String>> findInSystemEnvClass() throws ReflectiveOperationException {
 		Map<String, String> env = System.getenv(); //NOSONAR access required to implement the extension
-		consumer.accept(getFieldValue(env.getClass(), env, "m"));
+		return singletonList(getFieldValue(env.getClass(), env, "m"));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+
+package org.junitpioneer.jupiter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+import org.junit.jupiter.api.parallel.Resources;
+
+/**
+ * Captures the output written to {@code System.out} (with parameter {@link StdOut}) and
+ * {@code System.err} (with parameter {@link StdErr}) by the thread that executes a test
+ * (and threads it starts).
+ *
+ * <p>It works like {@link StdIo @StdIo} without input, but requires the configuration parameter
+ * {@code junitpioneer.std-io.isolate-threads} to be {@code true}. In that mode, {@code System.out}
+ * and {@code System.err} are replaced only once, with streams that route output to the test running
+ * on the current thread. Because tests don't replace them, tests annotated with {@code @IsolatedStdIo}
+ * only read them and can run in parallel with each other and with tests annotated with
+ * {@link ReadsStdIo @ReadsStdIo}.</p>
+ *
+ * <p>For more details and examples, see
+ * <a href="https://junit-pioneer.org/docs/standard-input-output/" target="_top">the documentation on <code>Standard input/output</code></a>.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.ANNOTATION_TYPE })
+@ResourceLock(value = Resources.SYSTEM_OUT, mode = ResourceAccessMode.READ)
+@ResourceLock(value = Resources.SYSTEM_ERR, mode = ResourceAccessMode.READ)
+@ExtendWith(StdIoExtension.class)
+public @interface IsolatedStdIo {
+
+	/**
+	 * The maximum number of bytes that {@link StdOut} and {@link StdErr} capture.
+	 * Once exceeded, the oldest bytes are dropped, so only the most recent output is kept.
+	 * Negative values mean that all output is captured.
+	 */
+	int maxCapturedBytes() default -1;
+
+	/**
+	 * Whether {@link StdOut} and {@link StdErr} capture the output to a file instead of keeping it in memory.
+	 * See {@link StdIo#captureToFile()} for details. Can't be combined with {@link #maxCapturedBytes()}.
+	 */
+	boolean captureToFile() default false;
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+
+package org.junitpioneer.jupiter;
+
+import java.util.function.Function;
+
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Clears and sets system properties only for the current thread. Unlike {@link SystemPropertyExtension},
+ * this never changes the global properties, which is why its annotations only need a read lock.
+ */
+class IsolatedSystemPropertyExtension extends
+		AbstractEntryBasedExtension<String, String, ClearIsolatedSystemProperty, SetIsolatedSystemProperty> {
+
+	@Override
+	public void beforeAll(ExtensionContext context) {
+		requireIsolatedThreads(context);
+		super.beforeAll(context);
+	}
+
+	@Override
+	public void beforeEach(ExtensionContext context) {
+		requireIsolatedThreads(context);
+		TestScopedThreadLocal.enterTest(context);
+		super.beforeEach(context);
+	}
+
+	private static void requireIsolatedThreads(ExtensionContext context) {
+		// with the global properties, changing them for one thread would change them for all
+		if (!SystemPropertyExtension.isolateThreadsIfConfigured(context))
+			throw new ExtensionConfigurationException(String
+					.format("@%s and @%s require the configuration parameter `%s` to be `true`",
+						ClearIsolatedSystemProperty.class.getSimpleName(),
+						SetIsolatedSystemProperty.class.getSimpleName(),
+						SystemPropertyExtension.ISOLATE_THREADS_PARAMETER));
+	}
+
+	@Override
+	protected Function<ClearIsolatedSystemProperty, String> clearKeyMapper() {
+		return ClearIsolatedSystemProperty::key;
+	}
+
+	@Override
+	protected Function<SetIsolatedSystemProperty, String> setKeyMapper() {
+		return SetIsolatedSystemProperty::key;
+	}
+
+	@Override
+	protected Function<SetIsolatedSystemProperty, String> setValueMapper() {
+		return SetIsolatedSystemProperty::value;
+	}
+
+	@Override
+	protected void clearEntry(String key) {
+		((ThreadIsolatedProperties) System.getProperties()).clearIsolated(key);
+	}
+
+	@Override
+	protected String getEntry(String key) {
+		return System.getProperty(key);
+	}
+
+	@Override
+	protected void setEntry(String key, String value) {
+		((ThreadIsolatedProperties) System.getProperties()).setIsolated(key, value);
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+/**
+ * {@code @LocaleSource} is an {@link ArgumentsSource} that provides {@link java.util.Locale locales}
+ * and makes each of them the default locale for the invocation it is provided to.
+ *
+ * <p>It can be used on a {@code @ParameterizedTest} method, in which case the first {@code Locale}
+ * parameter becomes the default, or on a {@code @CartesianTest} parameter, in which case that
+ * parameter becomes the default. Either way, the default locale is only set for the duration of the
+ * invocation and restored afterwards.</p>
+ *
+ * <p>The locales are either the ones specified by {@link #value() language tags} or, if none are,
+ * all {@link java.util.Locale#getAvailableLocales() available locales} except the root locale. In both
+ * cases, they can be filtered with {@link #matches() regular expressions}.</p>
+ *
+ * <p>During
+ * <a href="https://junit.org/junit5/docs/current/user-guide/#writing-tests-parallel-execution" target="_top">parallel test execution</a>,
+ * methods annotated with {@code @LocaleSource} are treated like ones annotated with
+ * {@link WritesDefaultLocale @WritesDefaultLocale}. Jupiter doesn't apply resource locks that are declared
+ * on parameters, though, so {@code @CartesianTest} methods that use it on a parameter need to be annotated
+ * with {@code @WritesDefaultLocale} themselves.</p>
+ *
+ * <p>For more details and examples, see
+ * <a href="https://junit-pioneer.org/docs/default-locale-timezone/" target="_top">the documentation on <code>@DefaultLocale</code> and <code>@DefaultTimeZone</code></a>.
+ * </p>
+ *
+ * @since 1.9.0
+ * @see TimeZoneSource
+ */
+@Target({ ElementType.METHOD, ElementType.PARAMETER })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@WritesDefaultLocale
+@ArgumentsSource(LocaleSourceArgumentsProvider.class)
+@ExtendWith(SourcedDefaultsExtension.class)
+public @interface LocaleSource {
+
+	/**
+	 * IETF BCP 47 language tags of the locales to provide. See
+	 * {@link java.util.Locale#forLanguageTag(String)} for more information
+	 * about valid language tag values.
+	 *
+	 * <p>If empty, all available locales are provided (sorted by their language tags).</p>
+	 */
+	String[] value() default {};
+
+	/**
+	 * Regular expressions of which a locale's language tag has to match at least one
+	 * for the locale to be provided.
+	 *
+	 * <p>If empty, all locales are provided.</p>
+	 */
+	String[] matches() default {};
+
+}
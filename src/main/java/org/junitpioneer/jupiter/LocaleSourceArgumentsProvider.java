@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.IllformedLocaleException;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.support.AnnotationConsumer;
+import org.junitpioneer.jupiter.cartesian.CartesianParameterArgumentsProvider;
+
+/**
+ * Provides the locales configured by {@link LocaleSource @LocaleSource} to {@code @ParameterizedTest}
+ * and {@code @CartesianTest} methods. Setting them as defaults is up to the {@link SourcedDefaultsExtension}.
+ */
+class LocaleSourceArgumentsProvider
+		implements ArgumentsProvider, CartesianParameterArgumentsProvider<Locale>, AnnotationConsumer<LocaleSource> {
+
+	private LocaleSource source;
+
+	@Override
+	public void accept(LocaleSource source) {
+		this.source = source;
+	}
+
+	@Override
+	public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
+		return provideLocales().stream().map(Arguments::of);
+	}
+
+	@Override
+	public Stream<Locale> provideArguments(ExtensionContext context, Parameter parameter) {
+		return provideLocales().stream();
+	}
+
+	private List<Locale> provideLocales() {
+		Stream<Locale> locales = source.value().length > 0
+				? Arrays.stream(source.value()).map(LocaleSourceArgumentsProvider::createLocale)
+				: Arrays
+						.stream(Locale.getAvailableLocales())
+						.filter(locale -> !locale.equals(Locale.ROOT))
+						.sorted(comparing(Locale::toLanguageTag));
+		List<Pattern> patterns = Arrays.stream(source.matches()).map(Pattern::compile).collect(toList());
+		List<Locale> matchingLocales = locales
+				.filter(locale -> patterns.isEmpty()
+						|| patterns.stream().anyMatch(pattern -> pattern.matcher(locale.toLanguageTag()).matches()))
+				.distinct()
+				.collect(toList());
+		if (matchingLocales.isEmpty())
+			throw new ExtensionConfigurationException(
+				"@LocaleSource not configured correctly. No locale matches the specified regular expressions.");
+		return matchingLocales;
+	}
+
+	private static Locale createLocale(String languageTag) {
+		// unlike `Locale::forLanguageTag`, which `@DefaultLocale` uses, the builder rejects ill-formed tags
+		// instead of ignoring them, which would otherwise quietly lead to duplicate or root locales
+		try {
+			return new Locale.Builder().setLanguageTag(languageTag).build();
+		}
+		catch (IllformedLocaleException exception) {
+			throw new ExtensionConfigurationException(String
+					.format("@LocaleSource not configured correctly. Could not parse the language tag '%s'.",
+						languageTag),
+				exception);
+		}
+	}
+
+}
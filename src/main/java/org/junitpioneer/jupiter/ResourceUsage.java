@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The resources the current thread used so far (allocated memory and CPU time) and the garbage collections
+ * the JVM ran so far, so that {@link #since(ResourceUsage) the difference} between two snapshots tells what
+ * a test used.
+ *
+ * <p>Not all JVMs can measure everything. Values that can't be measured are {@code -1}.</p>
+ */
+final class ResourceUsage {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private final long allocatedBytes;
+	private final long cpuNanos;
+	private final long gcCount;
+	private final long gcNanos;
+
+	private ResourceUsage(long allocatedBytes, long cpuNanos, long gcCount, long gcNanos) {
+		this.allocatedBytes = allocatedBytes;
+		this.cpuNanos = cpuNanos;
+		this.gcCount = gcCount;
+		this.gcNanos = gcNanos;
+	}
+
+	static ResourceUsage ofCurrentThread() {
+		long gcCount = 0;
+		long gcMillis = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			// collectors report -1 for values they don't track
+			gcCount += Math.max(collector.getCollectionCount(), 0);
+			gcMillis += Math.max(collector.getCollectionTime(), 0);
+		}
+		long cpuNanos = THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+		return new ResourceUsage(allocatedBytesOfCurrentThread(), cpuNanos, gcCount,
+			TimeUnit.MILLISECONDS.toNanos(gcMillis));
+	}
+
+	private static long allocatedBytesOfCurrentThread() {
+		if (!canMeasureAllocations())
+			return -1;
+		return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Returns whether this JVM tracks the bytes each thread allocates.
+	 */
+	static boolean canMeasureAllocations() {
+		try {
+			// only some JVMs (e.g. HotSpot) implement the extended interface, which tracks allocations
+			if (THREADS instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+				return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+			}
+		}
+		catch (LinkageError error) {
+			// the JVM doesn't have the extended interface at all
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the resources that were used between the given snapshot and this one.
+	 */
+	ResourceUsage since(ResourceUsage start) {
+		return new ResourceUsage(difference(allocatedBytes, start.allocatedBytes),
+			difference(cpuNanos, start.cpuNanos), gcCount - start.gcCount, gcNanos - start.gcNanos);
+	}
+
+	private static long difference(long end, long start) {
+		return end < 0 || start < 0 ? -1 : end - start;
+	}
+
+	long allocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Returns the values as a report entry with keys that start with the given prefix,
+	 * leaving out those that couldn't be measured.
+	 */
+	Map<String, String> toReportEntry(String keyPrefix) {
+		Map<String, String> entry = new LinkedHashMap<>();
+		if (allocatedBytes >= 0)
+			entry.put(keyPrefix + ".allocated-bytes", String.valueOf(allocatedBytes));
+		if (cpuNanos >= 0)
+			entry.put(keyPrefix + ".cpu-ns", String.valueOf(cpuNanos));
+		entry.put(keyPrefix + ".gc-count", String.valueOf(gcCount));
+		entry.put(keyPrefix + ".gc-ns", String.valueOf(gcNanos));
+		return entry;
+	}
+
+}
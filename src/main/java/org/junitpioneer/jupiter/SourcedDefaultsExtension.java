@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.TimeZone;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+/**
+ * Makes the arguments provided by {@link LocaleSource @LocaleSource} and {@link TimeZoneSource @TimeZoneSource}
+ * the default locale and time zone for the invocation they're provided to.
+ *
+ * <p>Unlike {@link DefaultLocaleExtension} and {@link DefaultTimeZoneExtension}, this extension intercepts the
+ * invocation instead of using before/after callbacks, because only the invocation knows its arguments.</p>
+ */
+class SourcedDefaultsExtension implements InvocationInterceptor {
+
+	@Override
+	public void interceptTestTemplateMethod(Invocation<Void> invocation,
+			ReflectiveInvocationContext<Method> invocationContext, ExtensionContext extensionContext) throws Throwable {
+		Method testMethod = invocationContext.getExecutable();
+		List<Object> arguments = invocationContext.getArguments();
+		Optional<Locale> locale = findArgument(testMethod, arguments, LocaleSource.class, Locale.class);
+		Optional<TimeZone> timeZone = findArgument(testMethod, arguments, TimeZoneSource.class, TimeZone.class);
+
+		Optional<Runnable> resetLocale = locale.map(SourcedDefaultsExtension::setDefaultLocale);
+		try {
+			Optional<Runnable> resetTimeZone = timeZone.map(SourcedDefaultsExtension::setDefaultTimeZone);
+			try {
+				invocation.proceed();
+			}
+			finally {
+				resetTimeZone.ifPresent(Runnable::run);
+			}
+		}
+		finally {
+			resetLocale.ifPresent(Runnable::run);
+		}
+	}
+
+	/**
+	 * Finds the first argument of the given type that is provided by the given source, i.e. that is either
+	 * passed to a parameter annotated with the source or to any parameter if the method is annotated with it.
+	 */
+	private static <T> Optional<T> findArgument(Method testMethod, List<Object> arguments,
+			Class<? extends Annotation> sourceType, Class<T> argumentType) {
+		boolean methodIsAnnotated = AnnotationSupport.isAnnotated(testMethod, sourceType);
+		Parameter[] parameters = testMethod.getParameters();
+		for (int i = 0; i < arguments.size(); i++) {
+			Object argument = arguments.get(i);
+			boolean isProvided = methodIsAnnotated || AnnotationSupport.isAnnotated(parameters[i], sourceType);
+			if (isProvided && argumentType.isInstance(argument))
+				return Optional.of(argumentType.cast(argument));
+		}
+		return Optional.empty();
+	}
+
+	private static Runnable setDefaultLocale(Locale locale) {
+		Locale previousLocale = Locale.getDefault();
+		Locale.setDefault(locale);
+		return () -> Locale.setDefault(previousLocale);
+	}
+
+	private static Runnable setDefaultTimeZone(TimeZone timeZone) {
+		TimeZone previousTimeZone = TimeZone.getDefault();
+		TimeZone.setDefault(timeZone);
+		return () -> TimeZone.setDefault(previousTimeZone);
+	}
+
+}
@@ -20,7 +20,15 @@ package org.junitpioneer.jupiter;
 public class StdErr extends StdOutputStream {
 
 	public StdErr() {
-		// recreate default constructor to prevent compiler warning
+		this(-1);
+	}
+
+	StdErr(int maxCapturedBytes) {
+		super(maxCapturedBytes);
+	}
+
+	StdErr(CaptureFile file) {
+		super(file);
 	}
 
 }
@@ -10,10 +10,12 @@
 
 package org.junitpioneer.jupiter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringReader;
-import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
 
 /**
  * <p>For details and examples, see
@@ -24,32 +26,87 @@ import java.io.StringWriter;
  */
 public class StdIn extends InputStream {
 
-	private final StringReader reader;
-	private final StringWriter writer = new StringWriter();
+	private final Source source;
+	private InputStream input;
+	// instead of keeping a copy of the read bytes, they're read again from the source when needed
+	private long readBytes;
 
 	public StdIn(String[] values) {
-		reader = new StringReader(String.join(StdIoExtension.SEPARATOR, values));
+		// `InputStreamReader` decodes with the default charset, so that's the one to encode with
+		byte[] bytes = String.join(StdIoExtension.SEPARATOR, values).getBytes(Charset.defaultCharset());
+		this.source = () -> new ByteArrayInputStream(bytes);
+	}
+
+	StdIn(Source source) {
+		this.source = source;
 	}
 
 	@Override
-	public int read() throws IOException {
-		int reading = reader.read();
-		if (reading != -1) {
-			writer.write(reading);
-		}
+	public synchronized int read() throws IOException {
+		int reading = input().read();
+		if (reading != -1)
+			readBytes++;
 		return reading;
 	}
 
 	@Override
-	public int read(byte[] b, int off, int len) throws IOException { // NOSONAR - this is fine for a simple testing extension
-		return super.read(b, off, len);
+	public synchronized int read(byte[] b, int off, int len) throws IOException {
+		int reading = input().read(b, off, len);
+		if (reading > 0)
+			readBytes += reading;
+		return reading;
+	}
+
+	@Override
+	public synchronized int available() throws IOException {
+		return input().available();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (input != null)
+			input.close();
+	}
+
+	private InputStream input() throws IOException {
+		if (input == null)
+			input = source.open();
+		return input;
 	}
 
 	/**
 	 * @return the lines that were read from {@code System.in}; note that buffering readers may read all lines eagerly
 	 */
 	public String[] capturedLines() {
-		return writer.toString().split(StdIoExtension.SEPARATOR);
+		return readText().split(StdIoExtension.SEPARATOR);
+	}
+
+	private synchronized String readText() {
+		ByteArrayOutputStream text = new ByteArrayOutputStream();
+		try (InputStream readInput = source.open()) {
+			byte[] buffer = new byte[8192];
+			long remainingBytes = readBytes;
+			while (remainingBytes > 0) {
+				int reading = readInput.read(buffer, 0, (int) Math.min(buffer.length, remainingBytes));
+				if (reading == -1)
+					break;
+				text.write(buffer, 0, reading);
+				remainingBytes -= reading;
+			}
+		}
+		catch (IOException exception) {
+			throw new UncheckedIOException("Could not read the input again to capture its lines", exception);
+		}
+		return new String(text.toByteArray(), Charset.defaultCharset());
+	}
+
+	/**
+	 * Opens the input, which may happen several times.
+	 */
+	interface Source {
+
+		InputStream open() throws IOException;
+
 	}
 
 }
@@ -23,7 +23,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
  * written to {@code System.out} (with parameter {@link StdOut StdOut}).
  *
  * The annotated test method can have zero, one, or both parameters, but {@code StdIn} can only
- * be provided if {@link StdIo#value()} is used to specify input - otherwise an
+ * be provided if {@link StdIo#value()}, {@link StdIo#inputResource()}, or {@link StdIo#inputFile()}
+ * is used to specify input - otherwise an
  * {@link org.junit.jupiter.api.extension.ExtensionConfigurationException ExtensionConfigurationException}
  * will be thrown.
  *
@@ -52,4 +53,42 @@ public @interface StdIo {
 	 */
 	String[] value() default {};
 
+	/**
+	 * Provides the intercepted standard input with the content of the specified classpath resource,
+	 * which is streamed instead of loaded into memory, so it can be large.
+	 * If this is not blank, the annotated method can have a {@link StdIn} parameter.
+	 *
+	 * @since 1.9.0
+	 */
+	String inputResource() default "";
+
+	/**
+	 * Provides the intercepted standard input with the content of the specified file,
+	 * which is streamed instead of loaded into memory, so it can be large.
+	 * If this is not blank, the annotated method can have a {@link StdIn} parameter.
+	 *
+	 * @since 1.9.0
+	 */
+	String inputFile() default "";
+
+	/**
+	 * The maximum number of bytes that {@link StdOut} and {@link StdErr} capture.
+	 * Once exceeded, the oldest bytes are dropped, so only the most recent output is kept.
+	 * Negative values mean that all output is captured.
+	 *
+	 * @since 1.9.0
+	 */
+	int maxCapturedBytes() default -1;
+
+	/**
+	 * Whether {@link StdOut} and {@link StdErr} capture the output to a file instead of keeping it in memory.
+	 * The file is created in the directory specified by the configuration parameter
+	 * {@code junitpioneer.std-io.capture-directory} and kept after the test, so it can be inspected.
+	 * Without that parameter, it's a temporary file that's deleted after the test.
+	 * Can't be combined with {@link #maxCapturedBytes()}.
+	 *
+	 * @since 1.9.0
+	 */
+	boolean captureToFile() default false;
+
 }
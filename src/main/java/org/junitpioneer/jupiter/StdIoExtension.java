@@ -13,14 +13,24 @@ package org.junitpioneer.jupiter;
 import static java.lang.String.format;
 import static org.junitpioneer.internal.PioneerAnnotationUtils.findClosestEnclosingAnnotation;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
 
 import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionConfigurationException;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
 import org.junit.jupiter.api.extension.ParameterContext;
 import org.junit.jupiter.api.extension.ParameterResolutionException;
 import org.junit.jupiter.api.extension.ParameterResolver;
@@ -35,6 +45,13 @@ class StdIoExtension implements ParameterResolver, BeforeEachCallback, AfterEach
 	private static final String SYSTEM_OUT_KEY = "StdIo_System_Out";
 	private static final String SYSTEM_ERR_KEY = "StdIo_System_Err";
 	private static final String STD_IN_KEY = "StdIo_Std_In";
+	private static final String ROUTED_OUT_KEY = "StdIo_Routed_Out";
+	private static final String ROUTED_ERR_KEY = "StdIo_Routed_Err";
+	private static final String CAPTURE_OUT_KEY = "StdIo_Capture_Out";
+	private static final String CAPTURE_ERR_KEY = "StdIo_Capture_Err";
+
+	static final String ISOLATE_THREADS_PARAMETER = "junitpioneer.std-io.isolate-threads";
+	static final String CAPTURE_DIRECTORY_PARAMETER = "junitpioneer.std-io.capture-directory";
 
 	@Override
 	public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
@@ -50,8 +67,11 @@ class StdIoExtension implements ParameterResolver, BeforeEachCallback, AfterEach
 		if (parameterType == StdErr.class)
 			return prepareStdErr(extensionContext);
 		if (parameterType == StdIn.class) {
-			String[] source = extensionContext.getRequiredTestMethod().getAnnotation(StdIo.class).value();
-			if (source.length == 0)
+			if (findIsolatedStdIo(extensionContext).isPresent())
+				throw new ExtensionConfigurationException(
+					"@IsolatedStdIo doesn't replace System.in, so no StdIn parameter can be provided.");
+			StdIo stdIo = findStdIo(extensionContext);
+			if (!definesInput(stdIo))
 				throw new ExtensionConfigurationException(
 					"@StdIo defined no input, so System.in is still in place and no StdIn parameter can be provided. "
 							+ "If you want to define empty input, use `@StdIo(\"\")`.");
@@ -61,7 +81,7 @@ class StdIoExtension implements ParameterResolver, BeforeEachCallback, AfterEach
 						.getStore(NAMESPACE)
 						.getOrComputeIfAbsent(
 								STD_IN_KEY,
-								__ -> createSwapStoreStdIn(extensionContext, source),
+								__ -> createSwapStoreStdIn(extensionContext, stdIo),
 								StdIn.class);
 				//@formatter:on
 		}
@@ -69,26 +89,122 @@ class StdIoExtension implements ParameterResolver, BeforeEachCallback, AfterEach
 	}
 
 	private StdOut prepareStdOut(ExtensionContext context) {
+		OutputCapture capture = findOutputCapture(context);
+		StdOut out = capture.toFile ? new StdOut(createCaptureFile(context, CAPTURE_OUT_KEY, ".out"))
+				: new StdOut(capture.maxBytes);
+		if (capture.routed) {
+			routeCurrentThread(context, ROUTED_OUT_KEY, ThreadRoutingOutputStream.out(), out);
+			return out;
+		}
 		storeStdOut(context);
-		return createOut();
+		System.setOut(new PrintStream(out));
+		return out;
+	}
+
+	private static boolean isolateThreadsIfConfigured(ExtensionContext context) {
+		boolean isolateThreads = context
+				.getConfigurationParameter(ISOLATE_THREADS_PARAMETER, Boolean::parseBoolean)
+				.orElse(false);
+		// the root store closes the installation, and thus reinstates the original streams, after all tests ran
+		if (isolateThreads)
+			context
+					.getRoot()
+					.getStore(NAMESPACE)
+					.getOrComputeIfAbsent(ThreadRoutingOutputStream.class, __ -> ThreadRoutingOutputStream.install(),
+						CloseableResource.class);
+		return isolateThreads;
+	}
+
+	private static void routeCurrentThread(ExtensionContext context, String key, ThreadRoutingOutputStream routing,
+			OutputStream target) {
+		// only threads started by the test inherit the route
+		TestScopedThreadLocal.enterTest(context);
+		OutputStream previousTarget = routing.route(target);
+		context.getStore(NAMESPACE).put(key, Optional.ofNullable(previousTarget));
+	}
+
+	private static OutputCapture findOutputCapture(ExtensionContext context) {
+		Optional<IsolatedStdIo> isolatedStdIo = findIsolatedStdIo(context);
+		OutputCapture capture;
+		if (isolatedStdIo.isPresent()) {
+			capture = new OutputCapture(IsolatedStdIo.class, isolatedStdIo.get().maxCapturedBytes(),
+				isolatedStdIo.get().captureToFile(), isolateThreadsIfConfigured(context));
+		} else {
+			StdIo stdIo = findStdIo(context);
+			capture = new OutputCapture(StdIo.class, stdIo.maxCapturedBytes(), stdIo.captureToFile(),
+				isolateThreadsIfConfigured(context));
+		}
+		if (capture.toFile && capture.maxBytes >= 0)
+			throw new ExtensionConfigurationException(format(
+				"@%s can't limit the captured bytes with `maxCapturedBytes` when capturing them to a file.",
+				capture.annotationType.getSimpleName()));
+		return capture;
+	}
+
+	private static CaptureFile createCaptureFile(ExtensionContext context, String key, String suffix) {
+		Path directory = context.getConfigurationParameter(CAPTURE_DIRECTORY_PARAMETER).map(Paths::get).orElse(null);
+		String prefix = context.getRequiredTestClass().getSimpleName() + "." + context.getRequiredTestMethod().getName()
+				+ "-";
+		try {
+			CaptureFile file = CaptureFile.create(directory, prefix, suffix);
+			// the store closes the file (and deletes it if it's temporary) after the test
+			context.getStore(NAMESPACE).put(key, file);
+			return file;
+		}
+		catch (IOException exception) {
+			throw new UncheckedIOException("Could not create a file to capture output to", exception);
+		}
 	}
 
 	private void storeStdOut(ExtensionContext context) {
 		context.getStore(NAMESPACE).put(SYSTEM_OUT_KEY, System.out); //NOSONAR never writing to System.out, only storing it
 	}
 
-	private StdOut createOut() {
-		StdOut out = new StdOut();
-		System.setOut(new PrintStream(out));
-		return out;
+	private static Optional<IsolatedStdIo> findIsolatedStdIo(ExtensionContext context) {
+		return findClosestEnclosingAnnotation(context, IsolatedStdIo.class);
+	}
+
+	private static StdIo findStdIo(ExtensionContext context) {
+		return findClosestEnclosingAnnotation(context, StdIo.class)
+				.orElseThrow(() -> new ExtensionConfigurationException(
+					format("StdIoExtension is active but no %s annotation was found.", StdIo.class.getName())));
+	}
+
+	private static boolean definesInput(StdIo stdIo) {
+		return stdIo.value().length > 0 || !stdIo.inputResource().isEmpty() || !stdIo.inputFile().isEmpty();
 	}
 
-	private StdIn createSwapStoreStdIn(ExtensionContext context, String[] source) {
-		StdIn newStdIn = new StdIn(source);
+	private StdIn createSwapStoreStdIn(ExtensionContext context, StdIo stdIo) {
+		StdIn newStdIn = createIn(context, stdIo);
 		swapAndStoreIn(context, newStdIn);
 		return newStdIn;
 	}
 
+	private StdIn createIn(ExtensionContext context, StdIo stdIo) {
+		int inputs = (stdIo.value().length > 0 ? 1 : 0) + (stdIo.inputResource().isEmpty() ? 0 : 1)
+				+ (stdIo.inputFile().isEmpty() ? 0 : 1);
+		if (inputs > 1)
+			throw new ExtensionConfigurationException(
+				"@StdIo can only define input with one of `value`, `inputResource`, and `inputFile`.");
+
+		if (!stdIo.inputResource().isEmpty()) {
+			String resource = stdIo.inputResource();
+			ClassLoader classLoader = context.getRequiredTestClass().getClassLoader();
+			if (classLoader.getResource(resource) == null)
+				throw new ExtensionConfigurationException(
+					format("@StdIo defined input resource '%s', which could not be found.", resource));
+			return new StdIn(() -> new BufferedInputStream(classLoader.getResourceAsStream(resource)));
+		}
+		if (!stdIo.inputFile().isEmpty()) {
+			Path file = Paths.get(stdIo.inputFile());
+			if (!Files.isRegularFile(file))
+				throw new ExtensionConfigurationException(
+					format("@StdIo defined input file '%s', which could not be found.", file));
+			return new StdIn(() -> new BufferedInputStream(Files.newInputStream(file)));
+		}
+		return new StdIn(stdIo.value());
+	}
+
 	private void swapAndStoreIn(ExtensionContext context, StdIn stdIn) {
 		context.getStore(NAMESPACE).put(SYSTEM_IN_KEY, System.in); //NOSONAR never reading from System.in, only storing it
 		context.getStore(NAMESPACE).put(STD_IN_KEY, stdIn);
@@ -96,34 +212,51 @@ class StdIoExtension implements ParameterResolver, BeforeEachCallback, AfterEach
 	}
 
 	private StdErr prepareStdErr(ExtensionContext context) {
+		OutputCapture capture = findOutputCapture(context);
+		StdErr err = capture.toFile ? new StdErr(createCaptureFile(context, CAPTURE_ERR_KEY, ".err"))
+				: new StdErr(capture.maxBytes);
+		if (capture.routed) {
+			routeCurrentThread(context, ROUTED_ERR_KEY, ThreadRoutingOutputStream.err(), err);
+			return err;
+		}
 		storeStdErr(context);
-		return createErr();
+		System.setErr(new PrintStream(err));
+		return err;
 	}
 
 	private void storeStdErr(ExtensionContext context) {
 		context.getStore(NAMESPACE).put(SYSTEM_ERR_KEY, System.err); //NOSONAR never writing to System.err, only storing it
 	}
 
-	private StdErr createErr() {
-		StdErr err = new StdErr();
-		System.setErr(new PrintStream(err));
-		return err;
-	}
-
 	@Override
 	public void beforeEach(ExtensionContext context) {
-		String[] source = findClosestEnclosingAnnotation(context, StdIo.class)
-				.orElseThrow(() -> new ExtensionConfigurationException(
-					format("StdIoExtension is active but no %s annotation was found.", StdIo.class.getName())))
-				.value();
+		if (findIsolatedStdIo(context).isPresent()) {
+			checkIsolatedStdIo(context);
+			return;
+		}
+
+		StdIo stdIo = findStdIo(context);
 		boolean testMethodIsParameterless = context.getRequiredTestMethod().getParameterCount() == 0;
-		if (source.length == 0 && testMethodIsParameterless)
+		if (!definesInput(stdIo) && testMethodIsParameterless)
 			throw new ExtensionConfigurationException(
 				"StdIoExtension is active but neither System.out or System.in are getting redirected.");
 
 		boolean stdInStillInPlace = context.getStore(NAMESPACE).get(STD_IN_KEY) == null;
-		if (source.length > 0 && stdInStillInPlace)
-			createSwapStoreStdIn(context, source);
+		if (definesInput(stdIo) && stdInStillInPlace)
+			createSwapStoreStdIn(context, stdIo);
+	}
+
+	private static void checkIsolatedStdIo(ExtensionContext context) {
+		if (findClosestEnclosingAnnotation(context, StdIo.class).isPresent())
+			throw new ExtensionConfigurationException("@StdIo and @IsolatedStdIo can't be combined.");
+		// tests with `@IsolatedStdIo` only hold read locks, so they must not replace the streams themselves
+		if (!isolateThreadsIfConfigured(context))
+			throw new ExtensionConfigurationException(
+				format("@IsolatedStdIo requires the configuration parameter `%s` to be `true`.",
+					ISOLATE_THREADS_PARAMETER));
+		if (context.getRequiredTestMethod().getParameterCount() == 0)
+			throw new ExtensionConfigurationException(
+				"@IsolatedStdIo is active but neither System.out nor System.err are getting captured.");
 	}
 
 	@Override
@@ -133,6 +266,10 @@ class StdIoExtension implements ParameterResolver, BeforeEachCallback, AfterEach
 		InputStream storedSystemIn = context.getStore(NAMESPACE).get(SYSTEM_IN_KEY, InputStream.class);
 		if (storedSystemIn != null)
 			System.setIn(storedSystemIn); //NOSONAR resetting input
+		// input from resources and files holds a stream (and, on some systems, a lock on the file) until it's closed
+		StdIn stdIn = context.getStore(NAMESPACE).get(STD_IN_KEY, StdIn.class);
+		if (stdIn != null)
+			closeStdIn(stdIn);
 
 		PrintStream storedSystemOut = context.getStore(NAMESPACE).get(SYSTEM_OUT_KEY, PrintStream.class);
 		if (storedSystemOut != null)
@@ -141,6 +278,45 @@ class StdIoExtension implements ParameterResolver, BeforeEachCallback, AfterEach
 		PrintStream storedSystemErr = context.getStore(NAMESPACE).get(SYSTEM_ERR_KEY, PrintStream.class);
 		if (storedSystemErr != null)
 			System.setErr(storedSystemErr); //NOSONAR resetting input
+
+		resetRoute(context, ROUTED_OUT_KEY, ThreadRoutingOutputStream.out());
+		resetRoute(context, ROUTED_ERR_KEY, ThreadRoutingOutputStream.err());
+	}
+
+	private static void closeStdIn(StdIn stdIn) {
+		try {
+			stdIn.close();
+		}
+		catch (IOException exception) {
+			throw new UncheckedIOException("Could not close the input", exception);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void resetRoute(ExtensionContext context, String key, ThreadRoutingOutputStream routing) {
+		Optional<OutputStream> previousTarget = context.getStore(NAMESPACE).get(key, Optional.class);
+		if (previousTarget != null)
+			routing.route(previousTarget.orElse(null));
+	}
+
+	/**
+	 * How {@link StdIo @StdIo} or {@link IsolatedStdIo @IsolatedStdIo} capture output.
+	 */
+	private static final class OutputCapture {
+
+		private final Class<? extends Annotation> annotationType;
+		private final int maxBytes;
+		private final boolean toFile;
+		// whether output is routed per thread instead of replacing `System.out` and `System.err`
+		private final boolean routed;
+
+		OutputCapture(Class<? extends Annotation> annotationType, int maxBytes, boolean toFile, boolean routed) {
+			this.annotationType = annotationType;
+			this.maxBytes = maxBytes;
+			this.toFile = toFile;
+			this.routed = routed;
+		}
+
 	}
 
 }
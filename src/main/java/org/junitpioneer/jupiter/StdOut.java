@@ -20,7 +20,15 @@ package org.junitpioneer.jupiter;
 public class StdOut extends StdOutputStream {
 
 	public StdOut() {
-		// recreate default constructor to prevent compiler warning
+		this(-1);
+	}
+
+	StdOut(int maxCapturedBytes) {
+		super(maxCapturedBytes);
+	}
+
+	StdOut(CaptureFile file) {
+		super(file);
 	}
 
 }
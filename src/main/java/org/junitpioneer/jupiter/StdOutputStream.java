@@ -10,33 +10,601 @@
 
 package org.junitpioneer.jupiter;
 
+import java.io.EOFException;
+import java.io.IOException;
 import java.io.OutputStream;
-import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
+/**
+ * Captures the bytes written to {@code System.out} or {@code System.err}.
+ *
+ * <p>Writing only copies bytes into chunks that, once full, are never copied again. Decoding them
+ * into text is comparatively expensive, so it happens lazily when the captured lines are requested
+ * and only for the bytes written since the last time. Because bytes are decoded as a whole instead of
+ * one write at a time, characters whose bytes were written separately (e.g. by {@link #write(int)})
+ * are decoded correctly.</p>
+ *
+ * <p>If the number of captured bytes is limited, the oldest bytes are dropped once the limit is exceeded,
+ * so only the most recent output is kept. Since the bytes that remain no longer necessarily start at a
+ * character or line boundary, they are then decoded again from scratch, which costs at most the limit.</p>
+ *
+ * <p>The decoded text is indexed by line as it grows, so {@link #lines()}, {@link #nextLines()}, and
+ * {@link #awaitLine(Predicate, Duration)} neither split the whole text nor, except for the latter's
+ * first check, look at lines they already looked at.</p>
+ *
+ * <p>If the bytes are captured to a file, neither they nor the decoded text are kept in memory. Instead,
+ * lines are indexed by the positions of their separators in the file, and bytes are only read from the
+ * file, a bounded region at a time, when they're requested as text or compared to an expected file.</p>
+ */
 abstract class StdOutputStream extends OutputStream {
 
-	private final StringWriter writer = new StringWriter();
+	private static final int FIRST_CHUNK_SIZE = 256;
+	private static final int MAX_CHUNK_SIZE = 64 * 1024;
+	// package visible, so tests can cross region boundaries
+	static final int READ_REGION_SIZE = 64 * 1024;
+	static final int COMPARED_REGION_SIZE = 1024 * 1024;
+
+	// `PrintStream` encodes with the default charset, so that's the one to decode with
+	private final Charset charset = Charset.defaultCharset();
+	private final CharsetDecoder decoder = newDecoder();
+
+	// `null` if the bytes are captured in memory
+	private final CaptureFile file;
+	// negative if unlimited
+	private final int maxCapturedBytes;
+	private long writtenBytes;
+	private long droppedBytes;
+
+	private final List<byte[]> chunks = new ArrayList<>();
+	// the number of bytes dropped from the first chunk
+	private int firstChunkOffset;
+	// the number of bytes written to the last chunk
+	private int lastChunkLength;
+
+	// the text decoded so far, which ends at the position of the next byte to decode
+	private final StringBuilder decodedText = new StringBuilder();
+	private int decodeChunkIndex;
+	private int decodeChunkOffset;
+	// bytes at the end of the decoded ones that don't form a complete character (yet)
+	private byte[] undecodedBytes = new byte[0];
+
+	// the text returned by the last call to `capturedText`, which is valid until more bytes are written
+	private String capturedText;
+
+	// the offsets in the decoded text (or, if the bytes are captured to a file, the positions in the file)
+	// at which the separators that end complete lines start
+	private long[] lineEnds = new long[16];
+	private int lineCount;
+	// the offset in the decoded text from which to look for the next separator
+	private int lineScanOffset;
+	// the number of bytes in the file that were scanned for separators and how many bytes of one they ended with
+	private long scannedFileBytes;
+	private int scannedSeparatorBytes;
+
+	// once bytes are dropped, lines have to be numbered by counting the ones that were ever written,
+	// so unlimited captures can skip that
+	private final byte[] separatorBytes = StdIoExtension.SEPARATOR.getBytes(charset);
+	private int separatorBytesMatched;
+	private long writtenLines;
+
+	// the number of the next line `nextLines` returns
+	private long nextLine;
+	private int awaitingThreads;
+
+	StdOutputStream(int maxCapturedBytes) {
+		this.file = null;
+		this.maxCapturedBytes = maxCapturedBytes;
+	}
 
-	public StdOutputStream() {
-		// recreate default constructor to prevent compiler warning
+	StdOutputStream(CaptureFile file) {
+		this.file = file;
+		this.maxCapturedBytes = -1;
 	}
 
 	@Override
-	public void write(int i) {
-		writer.write(i);
+	public synchronized void write(int b) {
+		if (file != null) {
+			file.write(b);
+			writtenToFile(1);
+			return;
+		}
+
+		ensureWritableChunk();
+		byte[] lastChunk = chunks.get(chunks.size() - 1);
+		lastChunk[lastChunkLength] = (byte) b;
+		countWrittenLines(lastChunk, lastChunkLength, 1);
+		lastChunkLength++;
+		writtenBytes++;
+		capturedText = null;
+		dropExcessBytes();
+		if (awaitingThreads > 0)
+			notifyAll();
+	}
+
+	@Override
+	public final synchronized void write(byte[] b, int off, int len) {
+		if (off < 0 || len < 0 || len > b.length - off)
+			throw new IndexOutOfBoundsException();
+		if (file != null) {
+			file.write(b, off, len);
+			writtenToFile(len);
+			return;
+		}
+
+		int written = 0;
+		while (written < len) {
+			ensureWritableChunk();
+			byte[] lastChunk = chunks.get(chunks.size() - 1);
+			int copied = Math.min(len - written, lastChunk.length - lastChunkLength);
+			System.arraycopy(b, off + written, lastChunk, lastChunkLength, copied);
+			countWrittenLines(lastChunk, lastChunkLength, copied);
+			lastChunkLength += copied;
+			written += copied;
+			writtenBytes += copied;
+			capturedText = null;
+			// drop after each chunk, so large writes don't exceed the limit by more than one chunk
+			dropExcessBytes();
+		}
+		if (awaitingThreads > 0)
+			notifyAll();
+	}
+
+	private void writtenToFile(int len) {
+		writtenBytes += len;
+		capturedText = null;
+		if (awaitingThreads > 0)
+			notifyAll();
 	}
 
 	@Override
-	public final void write(byte[] b, int off, int len) {
-		writer.write(new String(b, Charset.defaultCharset()), off, len);
+	public synchronized void flush() {
+		if (file != null)
+			file.flush();
+	}
+
+	private void countWrittenLines(byte[] bytes, int off, int len) {
+		if (maxCapturedBytes < 0)
+			return;
+
+		for (int i = off; i < off + len; i++) {
+			separatorBytesMatched = matchSeparator(separatorBytesMatched, bytes[i]);
+			if (separatorBytesMatched == separatorBytes.length) {
+				writtenLines++;
+				separatorBytesMatched = 0;
+			}
+		}
+	}
+
+	// returns how many bytes of a separator are matched after the given byte
+	private int matchSeparator(int matchedBytes, byte b) {
+		if (b == separatorBytes[matchedBytes])
+			return matchedBytes + 1;
+		// line separators don't start with their own suffix, so a mismatch can at most start a new match
+		return b == separatorBytes[0] ? 1 : 0;
+	}
+
+	private void ensureWritableChunk() {
+		if (!chunks.isEmpty() && lastChunkLength < chunks.get(chunks.size() - 1).length)
+			return;
+
+		// chunks grow with the output, so short output needs little memory and long output few chunks
+		int chunkSize = chunks.isEmpty() ? FIRST_CHUNK_SIZE
+				: Math.min(chunks.get(chunks.size() - 1).length * 2, MAX_CHUNK_SIZE);
+		chunks.add(new byte[chunkSize]);
+		lastChunkLength = 0;
+	}
+
+	private void dropExcessBytes() {
+		long excessBytes = writtenBytes - droppedBytes - maxCapturedBytes;
+		if (maxCapturedBytes < 0 || excessBytes <= 0)
+			return;
+
+		droppedBytes += excessBytes;
+		// bytes are dropped after every chunk that was written to, so the excess fits into an int
+		firstChunkOffset += (int) excessBytes;
+		while (chunks.size() > 1 && firstChunkOffset >= chunks.get(0).length) {
+			firstChunkOffset -= chunks.get(0).length;
+			chunks.remove(0);
+		}
+
+		decodedText.setLength(0);
+		decodeChunkIndex = 0;
+		decodeChunkOffset = firstChunkOffset;
+		undecodedBytes = new byte[0];
+		decoder.reset();
+		lineCount = 0;
+		lineScanOffset = 0;
+	}
+
+	private int chunkLength(int chunkIndex) {
+		return chunkIndex == chunks.size() - 1 ? lastChunkLength : chunks.get(chunkIndex).length;
 	}
 
 	/**
 	 * @return the lines that were written to {@code System.out} or {@code System.err}
 	 */
 	public String[] capturedLines() {
-		return writer.toString().split(StdIoExtension.SEPARATOR);
+		return capturedText().split(StdIoExtension.SEPARATOR);
+	}
+
+	/**
+	 * Returns the lines that were written to {@code System.out} or {@code System.err}. Unlike
+	 * {@link #capturedLines()}, the stream keeps empty lines at the end but, like
+	 * {@link java.io.BufferedReader#lines()}, has no empty line after a trailing line separator.
+	 *
+	 * @return the lines that were written to {@code System.out} or {@code System.err}
+	 * @since 1.9.0
+	 */
+	public Stream<String> lines() {
+		List<String> lines = new ArrayList<>();
+		synchronized (this) {
+			indexNewLines();
+			for (int line = 0; line < lineCount; line++)
+				lines.add(line(line));
+			String incompleteLine = text(lineStart(lineCount), file != null ? writtenBytes : decodedText.length());
+			if (!incompleteLine.isEmpty())
+				lines.add(incompleteLine);
+		}
+		return lines.stream();
+	}
+
+	/**
+	 * Returns the complete lines that were written to {@code System.out} or {@code System.err}
+	 * since the last call to this method (or, on the first call, since capturing started).
+	 * Lines that were dropped (see {@link StdIo#maxCapturedBytes()}) before they could be returned are skipped.
+	 *
+	 * @return the new complete lines
+	 * @since 1.9.0
+	 */
+	public synchronized List<String> nextLines() {
+		indexNewLines();
+		List<String> lines = new ArrayList<>();
+		for (int line = lineIndex(nextLine); line < lineCount; line++)
+			lines.add(line(line));
+		nextLine = firstLine() + lineCount;
+		return lines;
+	}
+
+	/**
+	 * Waits until a complete line that matches the given predicate was written to {@code System.out}
+	 * or {@code System.err} (including lines that were written before this method was called)
+	 * and returns the first such line.
+	 *
+	 * @param predicate the predicate the line needs to match
+	 * @param timeout how long to wait for such a line at most
+	 * @return the first matching line or {@link Optional#empty()} if there was none before the timeout
+	 * @throws InterruptedException if the current thread is interrupted while waiting
+	 * @since 1.9.0
+	 */
+	public synchronized Optional<String> awaitLine(Predicate<String> predicate, Duration timeout)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + timeout.toNanos();
+		long nextCheckedLine = 0;
+		awaitingThreads++;
+		try {
+			while (true) {
+				indexNewLines();
+				for (int line = lineIndex(nextCheckedLine); line < lineCount; line++) {
+					String text = line(line);
+					if (predicate.test(text))
+						return Optional.of(text);
+				}
+				nextCheckedLine = firstLine() + lineCount;
+
+				long remainingNanos = deadline - System.nanoTime();
+				if (remainingNanos <= 0)
+					return Optional.empty();
+				TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+			}
+		}
+		finally {
+			awaitingThreads--;
+		}
+	}
+
+	private void indexNewLines() {
+		if (file != null) {
+			indexNewFileLines();
+			return;
+		}
+
+		decodeNewBytes();
+		String separator = StdIoExtension.SEPARATOR;
+		int separatorStart = decodedText.indexOf(separator, lineScanOffset);
+		while (separatorStart >= 0) {
+			addLineEnd(separatorStart);
+			separatorStart = decodedText.indexOf(separator, separatorStart + separator.length());
+		}
+		// a separator may be split across the end of the text, so its beginning needs to be scanned again
+		lineScanOffset = (int) Math.max(lineStart(lineCount), decodedText.length() - separator.length() + 1);
+	}
+
+	private void indexNewFileLines() {
+		if (scannedFileBytes == writtenBytes)
+			return;
+
+		ByteBuffer region = ByteBuffer.allocate((int) Math.min(READ_REGION_SIZE, writtenBytes - scannedFileBytes));
+		while (scannedFileBytes < writtenBytes) {
+			region.clear();
+			region.limit((int) Math.min(region.capacity(), writtenBytes - scannedFileBytes));
+			file.read(scannedFileBytes, region);
+			for (int i = 0; i < region.limit(); i++) {
+				scannedSeparatorBytes = matchSeparator(scannedSeparatorBytes, region.get(i));
+				if (scannedSeparatorBytes == separatorBytes.length) {
+					addLineEnd(scannedFileBytes + i + 1 - separatorBytes.length);
+					scannedSeparatorBytes = 0;
+				}
+			}
+			scannedFileBytes += region.limit();
+		}
+	}
+
+	private void addLineEnd(long lineEnd) {
+		if (lineCount == lineEnds.length)
+			lineEnds = Arrays.copyOf(lineEnds, lineCount * 2);
+		lineEnds[lineCount++] = lineEnd;
+	}
+
+	// the absolute number of the first indexed line
+	private long firstLine() {
+		return maxCapturedBytes < 0 ? 0 : writtenLines - lineCount;
+	}
+
+	// the index of the line with the given absolute number or of the first indexed line if it was dropped
+	private int lineIndex(long line) {
+		return (int) Math.max(line - firstLine(), 0);
+	}
+
+	private long lineStart(int line) {
+		int separatorLength = file != null ? separatorBytes.length : StdIoExtension.SEPARATOR.length();
+		return line == 0 ? 0 : lineEnds[line - 1] + separatorLength;
+	}
+
+	private String line(int line) {
+		return text(lineStart(line), lineEnds[line]);
+	}
+
+	// the text between the given offsets in the decoded text or positions in the file
+	private String text(long start, long end) {
+		return file != null ? readText(start, end) : decodedText.substring((int) start, (int) end);
+	}
+
+	/**
+	 * @return the number of bytes that were written to {@code System.out} or {@code System.err},
+	 *     including the ones that were dropped
+	 * @since 1.9.0
+	 */
+	public synchronized long writtenBytes() {
+		return writtenBytes;
+	}
+
+	/**
+	 * @return the number of bytes that were dropped because {@link StdIo#maxCapturedBytes()} was exceeded
+	 * @since 1.9.0
+	 */
+	public synchronized long droppedBytes() {
+		return droppedBytes;
+	}
+
+	/**
+	 * @return the file the bytes written to {@code System.out} or {@code System.err} are captured to
+	 *     or {@link Optional#empty()} if they're captured in memory (see {@link StdIo#captureToFile()})
+	 * @since 1.9.0
+	 */
+	public Optional<Path> capturedFile() {
+		return Optional.ofNullable(file).map(CaptureFile::path);
+	}
+
+	/**
+	 * Returns a read-only view of the captured bytes. If they're captured to a file, it's memory-mapped,
+	 * so the bytes aren't copied onto the heap. Otherwise, it's a copy of the bytes captured in memory.
+	 * Either way, bytes written later aren't part of the view.
+	 *
+	 * @return the captured bytes
+	 * @throws IllegalStateException if more bytes were captured than fit into a {@link ByteBuffer}
+	 * @since 1.9.0
+	 */
+	public synchronized ByteBuffer capturedBytes() {
+		long capturedBytes = writtenBytes - droppedBytes;
+		if (capturedBytes > Integer.MAX_VALUE)
+			throw new IllegalStateException(
+				"Captured " + capturedBytes + " bytes, which are too many to view at once - use `mismatch` to compare them.");
+		if (file != null)
+			return file.map(0, capturedBytes).asReadOnlyBuffer();
+
+		ByteBuffer bytes = ByteBuffer.allocate((int) capturedBytes);
+		readCapturedRegion(0, bytes);
+		bytes.flip();
+		return bytes.asReadOnlyBuffer();
+	}
+
+	/**
+	 * Compares the captured bytes to the content of the given file, one region at a time, and returns
+	 * the position of the first byte that differs. If one of them is a prefix of the other, that's the
+	 * length of the shorter one. Unlike comparing lines, this neither decodes the bytes nor needs to
+	 * keep them all in memory at once.
+	 *
+	 * @param expectedFile the file with the expected bytes
+	 * @return the position of the first differing byte or {@code -1} if the bytes are identical
+	 * @throws IOException if the file can't be read
+	 * @since 1.9.0
+	 */
+	public long mismatch(Path expectedFile) throws IOException {
+		try (FileChannel expected = FileChannel.open(expectedFile, StandardOpenOption.READ)) {
+			synchronized (this) {
+				long capturedBytes = writtenBytes - droppedBytes;
+				long expectedBytes = expected.size();
+				long comparedBytes = Math.min(capturedBytes, expectedBytes);
+				// the regions are read into buffers that are reused instead of mapped, because mappings are only
+				// released once they're garbage collected
+				int regionSize = (int) Math.min(COMPARED_REGION_SIZE, comparedBytes);
+				ByteBuffer actualRegion = ByteBuffer.allocate(regionSize);
+				ByteBuffer expectedRegion = ByteBuffer.allocate(regionSize);
+				for (long position = 0; position < comparedBytes; position += regionSize) {
+					int size = (int) Math.min(regionSize, comparedBytes - position);
+					actualRegion.clear();
+					actualRegion.limit(size);
+					readCapturedRegion(position, actualRegion);
+					actualRegion.flip();
+					expectedRegion.clear();
+					expectedRegion.limit(size);
+					readFully(expected, position, expectedRegion);
+					expectedRegion.flip();
+					int mismatch = mismatch(actualRegion, expectedRegion);
+					if (mismatch >= 0)
+						return position + mismatch;
+				}
+				return capturedBytes == expectedBytes ? -1 : comparedBytes;
+			}
+		}
+	}
+
+	private static void readFully(FileChannel channel, long position, ByteBuffer target) throws IOException {
+		long readPosition = position;
+		while (target.hasRemaining()) {
+			int reading = channel.read(target, readPosition);
+			if (reading == -1)
+				throw new EOFException("The file ended before position " + (readPosition + target.remaining()));
+			readPosition += reading;
+		}
+	}
+
+	// fills the target with the captured bytes starting at the given position
+	private void readCapturedRegion(long position, ByteBuffer region) {
+		if (file != null) {
+			file.read(position, region);
+			return;
+		}
+
+		long skippedBytes = firstChunkOffset + position;
+		for (int chunkIndex = 0; chunkIndex < chunks.size() && region.hasRemaining(); chunkIndex++) {
+			int chunkLength = chunkLength(chunkIndex);
+			if (skippedBytes >= chunkLength) {
+				skippedBytes -= chunkLength;
+				continue;
+			}
+			int copied = (int) Math.min(chunkLength - skippedBytes, region.remaining());
+			region.put(chunks.get(chunkIndex), (int) skippedBytes, copied);
+			skippedBytes = 0;
+		}
+	}
+
+	// both buffers have the same number of remaining bytes
+	private static int mismatch(ByteBuffer actual, ByteBuffer expected) {
+		int size = actual.remaining();
+		int position = 0;
+		// comparing eight bytes at a time is a lot faster than comparing single bytes
+		while (position + Long.BYTES <= size && actual.getLong(position) == expected.getLong(position))
+			position += Long.BYTES;
+		for (; position < size; position++)
+			if (actual.get(position) != expected.get(position))
+				return position;
+		return -1;
+	}
+
+	private synchronized String capturedText() {
+		// the text is only kept in memory if the bytes are
+		if (file != null)
+			return readText(0, writtenBytes);
+		if (capturedText == null) {
+			decodeNewBytes();
+			// bytes that don't form a complete character yet are decoded to replacement characters
+			// without consuming them, so they can still be completed by further writes
+			capturedText = undecodedBytes.length == 0 ? decodedText.toString()
+					: decodedText + charset.decode(ByteBuffer.wrap(undecodedBytes)).toString();
+		}
+		return capturedText;
+	}
+
+	private void decodeNewBytes() {
+		int newByteCount = countNewBytes();
+		if (newByteCount == 0)
+			return;
+
+		ByteBuffer newBytes = ByteBuffer.allocate(undecodedBytes.length + newByteCount);
+		newBytes.put(undecodedBytes);
+		putNewChunkBytes(newBytes);
+		newBytes.flip();
+
+		CharBuffer newText = CharBuffer.allocate((int) (newBytes.remaining() * decoder.maxCharsPerByte()) + 1);
+		decoder.decode(newBytes, newText, false);
+		newText.flip();
+		decodedText.append(newText);
+		undecodedBytes = new byte[newBytes.remaining()];
+		newBytes.get(undecodedBytes);
+	}
+
+	private void putNewChunkBytes(ByteBuffer newBytes) {
+		for (; decodeChunkIndex < chunks.size(); decodeChunkIndex++) {
+			int chunkLength = chunkLength(decodeChunkIndex);
+			newBytes.put(chunks.get(decodeChunkIndex), decodeChunkOffset, chunkLength - decodeChunkOffset);
+			decodeChunkOffset = chunkLength;
+			// the last chunk may still receive more bytes, so stay on it
+			if (decodeChunkIndex == chunks.size() - 1)
+				break;
+			decodeChunkOffset = 0;
+		}
+	}
+
+	private int countNewBytes() {
+		int count = 0;
+		for (int i = decodeChunkIndex; i < chunks.size(); i++) {
+			int chunkOffset = i == decodeChunkIndex ? decodeChunkOffset : 0;
+			count += chunkLength(i) - chunkOffset;
+		}
+		return count;
+	}
+
+	/**
+	 * Decodes the bytes between the given positions in the file, a bounded region at a time.
+	 * Bytes at the end that don't form a complete character are decoded to replacement characters.
+	 */
+	private String readText(long start, long end) {
+		CharsetDecoder textDecoder = newDecoder();
+		StringBuilder text = new StringBuilder();
+		ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(READ_REGION_SIZE, end - start));
+		CharBuffer chars = CharBuffer.allocate((int) (bytes.capacity() * textDecoder.maxCharsPerByte()) + 1);
+		long position = start;
+		boolean endOfInput;
+		do {
+			// the buffer may still hold bytes of an incomplete character from the last region
+			int reading = (int) Math.min(bytes.remaining(), end - position);
+			bytes.limit(bytes.position() + reading);
+			file.read(position, bytes);
+			position += reading;
+			endOfInput = position == end;
+			bytes.flip();
+			textDecoder.decode(bytes, chars, endOfInput);
+			chars.flip();
+			text.append(chars);
+			chars.clear();
+			bytes.compact();
+		} while (!endOfInput);
+		textDecoder.flush(chars);
+		chars.flip();
+		return text.append(chars).toString();
+	}
+
+	private CharsetDecoder newDecoder() {
+		return charset
+				.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
 	}
 
 }
@@ -24,6 +24,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
  *
  * <p>{@code Stopwatch} is not repeatable. It can be used on the method and class level.
  *
+ * <p>With {@link #maxDurationMs()}, it fails tests that take longer than that budget. For test templates,
+ * {@link #percentile()} allows budgeting a percentile of the invocations' execution times instead.</p>
+ *
+ * <p>With {@link #warmupIterations()} and {@link #iterations()}, it executes the test several times and
+ * reports statistics of the measured iterations, like a simple micro-benchmark.</p>
+ *
+ * <p>With {@link #measureResources()}, it also reports the memory the test allocated, the CPU time it used,
+ * and the garbage collections that ran during its execution. With {@link #maxAllocatedBytes()}, it fails
+ * tests that allocate more memory than that budget.</p>
+ *
+ * <p>For more details and examples, see
+ * <a href="https://junit-pioneer.org/docs/stopwatch/" target="_top">the documentation on <code>@Stopwatch</code></a>.
+ * </p>
+ *
  * @since 0.6
  */
 @Retention(RetentionPolicy.RUNTIME)
@@ -32,4 +46,67 @@ import org.junit.jupiter.api.extension.ExtendWith;
 @ExtendWith(StopwatchExtension.class)
 public @interface Stopwatch {
 
+	/**
+	 * The maximum time in milliseconds a test may take to execute before it fails.
+	 * Negative values mean that there's no budget.
+	 *
+	 * @since 1.9.0
+	 */
+	long maxDurationMs() default -1;
+
+	/**
+	 * The percentile of the execution times of a test template's invocations that {@link #maxDurationMs()}
+	 * applies to. If it's less than 100, invocations don't fail individually. Instead, the template fails
+	 * after all invocations ran if the percentile of their execution times exceeds the budget.
+	 * Has no effect on tests that aren't test templates unless they run {@link #iterations()}, which then take
+	 * the place of the invocations.
+	 *
+	 * @since 1.9.0
+	 */
+	double percentile() default 100;
+
+	/**
+	 * The number of times the test is executed before it's measured, so the JIT compiler can compile the
+	 * code under test and classes are loaded. Their execution times aren't reported.
+	 *
+	 * @since 1.9.0
+	 */
+	int warmupIterations() default 0;
+
+	/**
+	 * The number of times the test is executed and measured. If it's more than 1 or if there are
+	 * {@link #warmupIterations() warm-up iterations}, the statistics of the measured iterations are reported
+	 * and checked against the {@link #maxDurationMs() budget}. Test instance and lifecycle methods aren't repeated.
+	 *
+	 * @since 1.9.0
+	 */
+	int iterations() default 1;
+
+	/**
+	 * Whether to run the garbage collector before each measured iteration, so garbage from one
+	 * iteration is less likely to be collected during another.
+	 *
+	 * @since 1.9.0
+	 */
+	boolean gcBetweenIterations() default false;
+
+	/**
+	 * Whether to report the memory the test allocated and the CPU time it used on the thread that
+	 * executed it as well as the number and duration of garbage collections that ran meanwhile.
+	 * With {@link #iterations()}, that's what all measured iterations used together.
+	 *
+	 * @since 1.9.0
+	 */
+	boolean measureResources() default false;
+
+	/**
+	 * The maximum number of bytes a test may allocate on the thread that executes it before it fails.
+	 * Negative values mean that there's no budget, other values imply {@link #measureResources()}.
+	 * With {@link #iterations()}, the budget applies to all measured iterations together.
+	 * On JVMs that can't measure allocations, the budget isn't checked.
+	 *
+	 * @since 1.9.0
+	 */
+	long maxAllocatedBytes() default -1;
+
 }
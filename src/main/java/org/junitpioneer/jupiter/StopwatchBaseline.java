@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalDouble;
+
+/**
+ * A file with the execution times of a test template's invocations that later runs are compared to,
+ * so they can detect a slowdown.
+ *
+ * <p>Execution times are noisy, so instead of comparing a single statistic, the comparison uses a
+ * one-sided Mann-Whitney U test: it returns the probability that durations at least as much slower than
+ * the baseline durations as the current ones occur by chance. That makes no assumptions about how the
+ * durations are distributed and isn't thrown off by the occasional outlier.</p>
+ */
+class StopwatchBaseline {
+
+	/**
+	 * The minimum number of durations in the baseline and the current run for a comparison to be meaningful.
+	 */
+	static final int MIN_DURATIONS = 10;
+
+	private final Path file;
+
+	StopwatchBaseline(Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * Compares the given durations to the baseline and returns the probability of the slowdown (see class
+	 * comment) or, if there's no baseline yet, stores them as the baseline and returns nothing. If there are
+	 * too few durations, it does neither.
+	 */
+	OptionalDouble compare(long[] durations) {
+		if (durations.length < MIN_DURATIONS)
+			return OptionalDouble.empty();
+
+		try {
+			if (!Files.exists(file)) {
+				store(durations);
+				return OptionalDouble.empty();
+			}
+			long[] baselineDurations = load();
+			if (baselineDurations.length < MIN_DURATIONS)
+				return OptionalDouble.empty();
+			return OptionalDouble.of(slowdownProbability(baselineDurations, durations));
+		}
+		catch (IOException exception) {
+			throw new UncheckedIOException("Could not access the stopwatch baseline " + file, exception);
+		}
+	}
+
+	private long[] load() throws IOException {
+		return Files
+				.readAllLines(file, UTF_8)
+				.stream()
+				.map(String::trim)
+				.filter(line -> !line.isEmpty() && !line.startsWith("#"))
+				.mapToLong(Long::parseLong)
+				.toArray();
+	}
+
+	private void store(long[] durations) throws IOException {
+		List<String> lines = new ArrayList<>(durations.length + 1);
+		lines.add("# execution times in nanoseconds - delete this file to record a new baseline");
+		for (long duration : durations)
+			lines.add(String.valueOf(duration));
+		if (file.getParent() != null)
+			Files.createDirectories(file.getParent());
+		Files.write(file, lines, UTF_8);
+	}
+
+	/**
+	 * Returns the one-sided p-value of the Mann-Whitney U test for the current durations being larger
+	 * than the baseline durations, using the normal approximation with tie and continuity correction.
+	 */
+	static double slowdownProbability(long[] baselineDurations, long[] currentDurations) {
+		int baselineCount = baselineDurations.length;
+		int currentCount = currentDurations.length;
+		int count = baselineCount + currentCount;
+
+		// sort all durations, remembering which ones are current, to rank them
+		long[][] durations = new long[count][];
+		for (int i = 0; i < baselineCount; i++)
+			durations[i] = new long[] { baselineDurations[i], 0 };
+		for (int i = 0; i < currentCount; i++)
+			durations[baselineCount + i] = new long[] { currentDurations[i], 1 };
+		Arrays.sort(durations, (left, right) -> Long.compare(left[0], right[0]));
+
+		double currentRankSum = 0;
+		double tieCorrection = 0;
+		int start = 0;
+		while (start < count) {
+			int end = start;
+			while (end < count && durations[end][0] == durations[start][0])
+				end++;
+			// tied durations share the average of their ranks, which are 1-based
+			double rank = (start + 1 + end) / 2.0;
+			for (int i = start; i < end; i++)
+				currentRankSum += durations[i][1] * rank;
+			long ties = end - start;
+			tieCorrection += ties * ties * ties - ties;
+			start = end;
+		}
+
+		double u = currentRankSum - currentCount * (currentCount + 1) / 2.0;
+		double mean = baselineCount * (double) currentCount / 2;
+		double variance = baselineCount * (double) currentCount / 12
+				* (count + 1 - tieCorrection / ((double) count * (count - 1)));
+		if (variance == 0)
+			return 1;
+		double z = (u - mean - 0.5) / Math.sqrt(variance);
+		return 1 - standardNormalDistribution(z);
+	}
+
+	// the approximation 26.2.17 from Abramowitz and Stegun, which is accurate to 7.5e-8
+	private static double standardNormalDistribution(double z) {
+		if (z < 0)
+			return 1 - standardNormalDistribution(-z);
+		double t = 1 / (1 + 0.2316419 * z);
+		double density = Math.exp(-z * z / 2) / Math.sqrt(2 * Math.PI);
+		double polynomial = t
+				* (0.319381530 + t * (-0.356563782 + t * (1.781477937 + t * (-1.821255978 + t * 1.330274429))));
+		return 1 - density * polynomial;
+	}
+
+}
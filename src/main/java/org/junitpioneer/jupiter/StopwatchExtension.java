@@ -10,46 +10,284 @@
 
 package org.junitpioneer.jupiter;
 
-import java.time.Clock;
+import static java.lang.String.format;
+import static org.junitpioneer.internal.PioneerAnnotationUtils.findClosestEnclosingAnnotation;
+
+import java.lang.reflect.Method;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
 import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.junit.platform.commons.support.ReflectionSupport;
+import org.opentest4j.AssertionFailedError;
 
 /**
  * The StopwatchExtension implements callback methods for the {@code @Stopwatch} annotation.
  */
-class StopwatchExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+class StopwatchExtension
+		implements BeforeTestExecutionCallback, AfterTestExecutionCallback, InvocationInterceptor, ParameterResolver {
 
-	private final Clock clock = Clock.systemUTC();
 	private static final Namespace NAMESPACE = Namespace.create(StopwatchExtension.class);
 	static final String STORE_KEY = "StopwatchExtension";
+	private static final String STATISTICS_KEY = "StopwatchExtension_Statistics";
+	private static final String RESOURCE_USAGE_KEY_SUFFIX = "_ResourceUsage";
+
+	static final String BASELINE_DIRECTORY_PARAMETER = "junitpioneer.stopwatch.baseline-directory";
+	static final double SLOWDOWN_SIGNIFICANCE = 0.01;
 
 	@Override
 	public void beforeTestExecution(ExtensionContext context) {
+		if (measuresResources(findStopwatch(context)))
+			storeResourceUsage(context);
+		// take the time last, so measuring the resources doesn't count towards it
 		storeNowAsLaunchTime(context);
 	}
 
 	@Override
 	public void afterTestExecution(ExtensionContext context) {
-		calculateAndReportElapsedTime(context);
+		long elapsedTime = System.nanoTime() - loadLaunchTime(context);
+		// measure the resources right away, so reporting the time doesn't count towards them
+		Optional<ResourceUsage> resourceUsage = loadResourceUsage(context)
+				.map(start -> ResourceUsage.ofCurrentThread().since(start));
+		reportElapsedTime(context, elapsedTime);
+		resourceUsage.ifPresent(usage -> context.publishReportEntry(usage.toReportEntry(STORE_KEY)));
+
+		resourceUsage.ifPresent(usage -> checkAllocationBudget(context, usage));
+		// the iterations' statistics were already reported and checked
+		if (runsIterations(findStopwatch(context)))
+			return;
+		templateOf(context).ifPresent(template -> templateStatistics(template).statistics.record(elapsedTime));
+		checkBudget(context, elapsedTime);
+	}
+
+	@Override
+	public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+		return parameterContext.getParameter().getType() == Blackhole.class;
+	}
+
+	@Override
+	public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+		return new Blackhole();
+	}
+
+	@Override
+	public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+			ExtensionContext extensionContext) throws Throwable {
+		runIterationsIfConfigured(invocation, invocationContext, extensionContext);
+	}
+
+	@Override
+	public void interceptTestTemplateMethod(Invocation<Void> invocation,
+			ReflectiveInvocationContext<Method> invocationContext, ExtensionContext extensionContext) throws Throwable {
+		runIterationsIfConfigured(invocation, invocationContext, extensionContext);
+	}
+
+	private static void runIterationsIfConfigured(Invocation<Void> invocation,
+			ReflectiveInvocationContext<Method> invocationContext, ExtensionContext context) throws Throwable {
+		Stopwatch stopwatch = findStopwatch(context);
+		if (!runsIterations(stopwatch)) {
+			invocation.proceed();
+			return;
+		}
+
+		// the iterations replace the invocation, so other interceptors don't run for each of them
+		invocation.skip();
+		Method testMethod = invocationContext.getExecutable();
+		Object testInstance = invocationContext.getTarget().orElse(null);
+		Object[] arguments = invocationContext.getArguments().toArray();
+		for (int iteration = 0; iteration < stopwatch.warmupIterations(); iteration++)
+			ReflectionSupport.invokeMethod(testMethod, testInstance, arguments);
+		// the warm-up iterations' resources aren't reported, either
+		if (measuresResources(stopwatch))
+			storeResourceUsage(context);
+
+		Measurements measurements = new Measurements(context, stopwatch, baseline(context).orElse(null));
+		for (int iteration = 0; iteration < stopwatch.iterations(); iteration++) {
+			if (stopwatch.gcBetweenIterations())
+				System.gc(); //NOSONAR collecting garbage between iterations was explicitly requested
+			long start = System.nanoTime();
+			ReflectionSupport.invokeMethod(testMethod, testInstance, arguments);
+			measurements.statistics.record(System.nanoTime() - start);
+		}
+		measurements.report(true);
+	}
+
+	private static boolean runsIterations(Stopwatch stopwatch) {
+		return stopwatch.warmupIterations() > 0 || stopwatch.iterations() > 1;
+	}
+
+	private static boolean measuresResources(Stopwatch stopwatch) {
+		return stopwatch.measureResources() || stopwatch.maxAllocatedBytes() >= 0;
 	}
 
 	private void storeNowAsLaunchTime(ExtensionContext context) {
-		context.getStore(NAMESPACE).put(context.getUniqueId(), clock.instant().toEpochMilli());
+		// unlike the wall-clock time, `nanoTime` never jumps, so it's the right clock to measure elapsed time
+		context.getStore(NAMESPACE).put(context.getUniqueId(), System.nanoTime());
 	}
 
 	private long loadLaunchTime(ExtensionContext context) {
 		return context.getStore(NAMESPACE).get(context.getUniqueId(), long.class);
 	}
 
-	private void calculateAndReportElapsedTime(ExtensionContext context) {
-		long launchTime = loadLaunchTime(context);
-		long elapsedTime = clock.instant().toEpochMilli() - launchTime;
+	private static void storeResourceUsage(ExtensionContext context) {
+		context
+				.getStore(NAMESPACE)
+				.put(context.getUniqueId() + RESOURCE_USAGE_KEY_SUFFIX, ResourceUsage.ofCurrentThread());
+	}
+
+	private static Optional<ResourceUsage> loadResourceUsage(ExtensionContext context) {
+		return Optional
+				.ofNullable(context
+						.getStore(NAMESPACE)
+						.get(context.getUniqueId() + RESOURCE_USAGE_KEY_SUFFIX, ResourceUsage.class));
+	}
 
-		String message = String.format("Execution of '%s' took [%d] ms.", context.getDisplayName(), elapsedTime);
+	private void reportElapsedTime(ExtensionContext context, long elapsedTime) {
+		String message = format("Execution of '%s' took [%d] ms.", context.getDisplayName(),
+			TimeUnit.NANOSECONDS.toMillis(elapsedTime));
 		context.publishReportEntry(STORE_KEY, message);
 	}
 
+	private static void checkAllocationBudget(ExtensionContext context, ResourceUsage usage) {
+		// JVMs that can't measure allocations report -1, which never exceeds the budget
+		long maxAllocatedBytes = findStopwatch(context).maxAllocatedBytes();
+		if (maxAllocatedBytes >= 0 && usage.allocatedBytes() > maxAllocatedBytes)
+			throw new AssertionFailedError(
+				format("Execution of '%s' allocated [%d] bytes, which exceeds the budget of [%d] bytes.",
+					context.getDisplayName(), usage.allocatedBytes(), maxAllocatedBytes));
+	}
+
+	private static void checkBudget(ExtensionContext context, long elapsedTime) {
+		Stopwatch stopwatch = findStopwatch(context);
+		if (stopwatch.maxDurationMs() < 0)
+			return;
+		// with a percentile budget, a template's invocations are only checked together
+		if (stopwatch.percentile() < 100 && templateOf(context).isPresent())
+			return;
+
+		if (elapsedTime > TimeUnit.MILLISECONDS.toNanos(stopwatch.maxDurationMs()))
+			throw new AssertionFailedError(format("Execution of '%s' took [%d] ms, which exceeds the budget of [%d] ms.",
+				context.getDisplayName(), TimeUnit.NANOSECONDS.toMillis(elapsedTime), stopwatch.maxDurationMs()));
+	}
+
+	private static Stopwatch findStopwatch(ExtensionContext context) {
+		Stopwatch stopwatch = findClosestEnclosingAnnotation(context, Stopwatch.class)
+				.orElseThrow(() -> new ExtensionConfigurationException(
+					format("StopwatchExtension is active but no %s annotation was found.", Stopwatch.class.getName())));
+		if (stopwatch.percentile() <= 0 || stopwatch.percentile() > 100)
+			throw new ExtensionConfigurationException(
+				format("@Stopwatch's percentile must be greater than 0 and at most 100 but was %s.",
+					stopwatch.percentile()));
+		if (stopwatch.warmupIterations() < 0 || stopwatch.iterations() < 1)
+			throw new ExtensionConfigurationException(
+				format("@Stopwatch needs at least 0 warm-up iterations and 1 iteration but got %d and %d.",
+					stopwatch.warmupIterations(), stopwatch.iterations()));
+		return stopwatch;
+	}
+
+	// the invocations of test templates (e.g. repeated or parameterized tests) share the template's context
+	private static Optional<ExtensionContext> templateOf(ExtensionContext context) {
+		return context.getParent().filter(parent -> parent.getTestMethod().isPresent());
+	}
+
+	private static Measurements templateStatistics(ExtensionContext template) {
+		return template
+				.getStore(NAMESPACE)
+				.getOrComputeIfAbsent(STATISTICS_KEY,
+					__ -> new Measurements(template, findStopwatch(template), baseline(template).orElse(null)),
+					Measurements.class);
+	}
+
+	private static Optional<StopwatchBaseline> baseline(ExtensionContext context) {
+		// the unique ID tells tests with the same name apart (e.g. overloaded or in different nested classes)
+		String fileName = format("%s.%s-%08x.txt", context.getRequiredTestClass().getName(),
+			context.getRequiredTestMethod().getName(), context.getUniqueId().hashCode());
+		return context
+				.getConfigurationParameter(BASELINE_DIRECTORY_PARAMETER)
+				.map(directory -> new StopwatchBaseline(Paths.get(directory, fileName)));
+	}
+
+	/**
+	 * Collects the durations of a template's invocations (or a test's iterations) and reports their statistics
+	 * and checks them against the budget and baseline - for templates, once the template's context is closed
+	 * after all invocations ran.
+	 */
+	private static class Measurements implements CloseableResource {
+
+		private final ExtensionContext context;
+		private final Stopwatch stopwatch;
+		// `null` if no baseline directory is configured
+		private final StopwatchBaseline baseline;
+		private final DurationStatistics statistics;
+
+		Measurements(ExtensionContext context, Stopwatch stopwatch, StopwatchBaseline baseline) {
+			this.context = context;
+			this.stopwatch = stopwatch;
+			this.baseline = baseline;
+			this.statistics = new DurationStatistics(baseline != null);
+		}
+
+		@Override
+		public void close() {
+			// a template's invocations are checked individually unless a percentile is budgeted
+			report(stopwatch.percentile() < 100);
+		}
+
+		void report(boolean checkPercentileBudget) {
+			OptionalDouble slowdownProbability = baseline == null ? OptionalDouble.empty()
+					: baseline.compare(statistics.durations());
+
+			Map<String, String> entry = new LinkedHashMap<>();
+			entry.put(STORE_KEY + ".count", String.valueOf(statistics.count()));
+			entry.put(STORE_KEY + ".min-ns", String.valueOf(statistics.min()));
+			entry.put(STORE_KEY + ".mean-ns", String.valueOf(statistics.mean()));
+			entry.put(STORE_KEY + ".max-ns", String.valueOf(statistics.max()));
+			entry.put(STORE_KEY + ".p50-ns", String.valueOf(statistics.percentile(50)));
+			entry.put(STORE_KEY + ".p95-ns", String.valueOf(statistics.percentile(95)));
+			entry.put(STORE_KEY + ".p99-ns", String.valueOf(statistics.percentile(99)));
+			slowdownProbability
+					.ifPresent(probability -> entry.put(STORE_KEY + ".slowdown-p-value", String.valueOf(probability)));
+			context.publishReportEntry(entry);
+
+			if (checkPercentileBudget)
+				checkPercentileBudget();
+			if (slowdownProbability.isPresent() && slowdownProbability.getAsDouble() < SLOWDOWN_SIGNIFICANCE)
+				throw new AssertionFailedError(format(
+					"Executions of '%s' are significantly slower than the baseline (p-value %s); if that's expected, "
+							+ "delete the baseline to record a new one.",
+					context.getDisplayName(), slowdownProbability.getAsDouble()));
+		}
+
+		private void checkPercentileBudget() {
+			if (stopwatch.maxDurationMs() < 0)
+				return;
+
+			long percentile = statistics.percentile(stopwatch.percentile());
+			if (percentile > TimeUnit.MILLISECONDS.toNanos(stopwatch.maxDurationMs())) {
+				// print "50th" instead of "50.0th"
+				String percentage = stopwatch.percentile() == Math.rint(stopwatch.percentile())
+						? String.valueOf((long) stopwatch.percentile())
+						: String.valueOf(stopwatch.percentile());
+				throw new AssertionFailedError(format(
+					"The %sth percentile of the executions of '%s' took [%d] ms, which exceeds the budget of [%d] ms.",
+					percentage, context.getDisplayName(), TimeUnit.NANOSECONDS.toMillis(percentile),
+					stopwatch.maxDurationMs()));
+			}
+		}
+
+	}
+
 }
@@ -10,11 +10,57 @@
 
 package org.junitpioneer.jupiter;
 
+import java.util.Properties;
 import java.util.function.Function;
 
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
 class SystemPropertyExtension
 		extends AbstractEntryBasedExtension<String, String, ClearSystemProperty, SetSystemProperty> {
 
+	static final String ISOLATE_THREADS_PARAMETER = "junitpioneer.system-properties.isolate-threads";
+
+	private static final Namespace NAMESPACE = Namespace.create(SystemPropertyExtension.class, "thread isolation");
+
+	/*
+	 * Each engine execution creates its own extension instances and its configuration parameters don't change,
+	 * so the mode is kept per instance. Deciding it by whether thread-isolated properties are installed would let
+	 * concurrent or nested executions (e.g. with the test kit) that isolate threads change the properties of those
+	 * that don't only for their own thread.
+	 */
+	private volatile boolean isolateThreads;
+
+	@Override
+	public void beforeAll(ExtensionContext context) {
+		isolateThreads = isolateThreadsIfConfigured(context);
+		super.beforeAll(context);
+	}
+
+	@Override
+	public void beforeEach(ExtensionContext context) {
+		isolateThreads = isolateThreadsIfConfigured(context);
+		// only threads started by the test inherit its properties, not those started by the class's thread
+		if (isolateThreads)
+			TestScopedThreadLocal.enterTest(context);
+		super.beforeEach(context);
+	}
+
+	static boolean isolateThreadsIfConfigured(ExtensionContext context) {
+		boolean isolateThreads = context
+				.getConfigurationParameter(ISOLATE_THREADS_PARAMETER, Boolean::parseBoolean)
+				.orElse(false);
+		// the root store closes the installation, and thus reinstates the global properties, after all tests ran
+		if (isolateThreads)
+			context
+					.getRoot()
+					.getStore(NAMESPACE)
+					.getOrComputeIfAbsent(ThreadIsolatedProperties.class, __ -> ThreadIsolatedProperties.install(),
+						CloseableResource.class);
+		return isolateThreads;
+	}
+
 	@Override
 	protected Function<ClearSystemProperty, String> clearKeyMapper() {
 		return ClearSystemProperty::key;
@@ -32,7 +78,11 @@ class SystemPropertyExtension
 
 	@Override
 	protected void clearEntry(String key) {
-		System.clearProperty(key);
+		Properties properties = System.getProperties();
+		if (isolateThreads && properties instanceof ThreadIsolatedProperties)
+			((ThreadIsolatedProperties) properties).clearIsolated(key);
+		else
+			System.clearProperty(key);
 	}
 
 	@Override
@@ -42,7 +92,11 @@ class SystemPropertyExtension
 
 	@Override
 	protected void setEntry(String key, String value) {
-		System.setProperty(key, value);
+		Properties properties = System.getProperties();
+		if (isolateThreads && properties instanceof ThreadIsolatedProperties)
+			((ThreadIsolatedProperties) properties).setIsolated(key, value);
+		else
+			System.setProperty(key, value);
 	}
 
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+/**
+ * A thread-local value that threads only inherit while a test runs on their parent thread and only
+ * until that test ends.
+ *
+ * <p>A plain {@link InheritableThreadLocal} would let threads keep their parent's value for good, which
+ * breaks isolation for long-lived threads: a pool thread that's created during a test (or by a thread that
+ * applied a class-level value) would otherwise keep that value and later run unrelated tasks or tests with
+ * it. Instead, threads don't inherit values from threads outside of a test and values they inherit from a
+ * test are discarded once it ends, so they fall back to the global state again.</p>
+ *
+ * <p>Extensions call {@link #enterTest(ExtensionContext)} before a test, so threads it starts inherit.</p>
+ */
+final class TestScopedThreadLocal<T> {
+
+	private static final Namespace NAMESPACE = Namespace.create(TestScopedThreadLocal.class);
+
+	// not a thread-local itself, because those can't be safely read while a thread inherits thread-locals
+	private static final Map<Thread, TestScope> RUNNING_TESTS = new ConcurrentHashMap<>();
+
+	private final ThreadLocal<Binding<T>> bindings;
+
+	/**
+	 * @param copy creates a child thread's copy of its parent's value
+	 */
+	TestScopedThreadLocal(UnaryOperator<T> copy) {
+		this.bindings = new InheritableThreadLocal<Binding<T>>() {
+
+			@Override
+			protected Binding<T> childValue(Binding<T> parentBinding) {
+				if (parentBinding == null)
+					return null;
+				// threads started by inheriting threads inherit as long as the same test runs
+				TestScope test = parentBinding.test != null ? parentBinding.test
+						: RUNNING_TESTS.get(Thread.currentThread());
+				if (test == null || !test.running)
+					return null;
+				return new Binding<>(copy.apply(parentBinding.value), test);
+			}
+
+		};
+	}
+
+	/**
+	 * Marks the current thread as running the given test until the test's context is closed,
+	 * so threads started in the meantime inherit values.
+	 */
+	static void enterTest(ExtensionContext testContext) {
+		testContext.getStore(NAMESPACE).getOrComputeIfAbsent(TestScope.class, __ -> new TestScope(), TestScope.class);
+	}
+
+	/**
+	 * Returns the current thread's value or {@code null} if it has none (anymore).
+	 */
+	T get() {
+		Binding<T> binding = bindings.get();
+		if (binding == null)
+			return null;
+		if (binding.test != null && !binding.test.running) {
+			bindings.remove();
+			return null;
+		}
+		return binding.value;
+	}
+
+	/**
+	 * Sets the current thread's value, which it keeps until it's {@link #remove() removed}.
+	 */
+	void set(T value) {
+		bindings.set(new Binding<>(value, null));
+	}
+
+	void remove() {
+		bindings.remove();
+	}
+
+	private static final class Binding<T> {
+
+		private final T value;
+		// `null` if the value was set on this thread instead of inherited
+		private final TestScope test;
+
+		Binding(T value, TestScope test) {
+			this.value = value;
+			this.test = test;
+		}
+
+	}
+
+	private static final class TestScope implements CloseableResource {
+
+		private final Thread thread = Thread.currentThread();
+		// tests can run nested tests on the same thread (e.g. with the test kit)
+		private final TestScope enclosingTest = RUNNING_TESTS.put(thread, this);
+		private volatile boolean running = true;
+
+		@Override
+		public void close() {
+			running = false;
+			if (enclosingTest == null)
+				RUNNING_TESTS.remove(thread, this);
+			else
+				RUNNING_TESTS.replace(thread, this, enclosingTest);
+		}
+
+	}
+
+}
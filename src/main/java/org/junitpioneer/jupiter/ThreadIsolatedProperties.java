@@ -0,0 +1,229 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+/**
+ * System properties that consult a per-thread overlay before the global properties, so that
+ * {@link SetIsolatedSystemProperty @SetIsolatedSystemProperty}, {@link SetSystemProperty @SetSystemProperty},
+ * and their clearing counterparts only affect the thread that runs the test (and threads it starts).
+ *
+ * <p>Reading single properties ({@link #getProperty(String)}, {@link #get(Object)}, {@link #containsKey(Object)},
+ * and the methods delegating to them), {@link #setProperty(String, String)}, {@link #remove(Object)}, as well as
+ * {@link #stringPropertyNames()}, {@link #propertyNames()}, {@link #keySet()}, and {@link #entrySet()} are
+ * isolated. On a thread with an overlay, the latter two are read-only snapshots. All other methods, e.g.
+ * {@link #put(Object, Object)}, {@link #size()}, {@link #values()}, {@link #keys()}, or
+ * {@link #forEach(java.util.function.BiConsumer) forEach}, operate on the global properties.</p>
+ *
+ * <p>A thread's overlay is created when the extension first changes an entry on it and only holds
+ * the entries that deviate from the global properties. While a thread has an overlay, code running
+ * on it writes to the overlay as well. Threads started during a test inherit a copy of its overlay until
+ * the test ends (see {@link TestScopedThreadLocal}), so they see its properties, but threads in pools that
+ * were started before don't.</p>
+ */
+final class ThreadIsolatedProperties extends Properties {
+
+	private static final long serialVersionUID = 1L;
+
+	private static int installations;
+	private static Properties globalProperties;
+
+	// an entry with a `null` value is a cleared property
+	private final transient TestScopedThreadLocal<Map<String, String>> overlays = new TestScopedThreadLocal<>(
+		HashMap::new);
+
+	private ThreadIsolatedProperties(Properties globalProperties) {
+		putAll(globalProperties);
+	}
+
+	/**
+	 * Replaces the system properties with thread-isolated ones (unless that already happened) and
+	 * returns a resource that undoes that when closed.
+	 */
+	static synchronized CloseableResource install() {
+		if (installations++ == 0) {
+			globalProperties = System.getProperties();
+			System.setProperties(new ThreadIsolatedProperties(globalProperties));
+		}
+		return ThreadIsolatedProperties::uninstall;
+	}
+
+	private static synchronized void uninstall() {
+		if (--installations > 0)
+			return;
+
+		// global changes made while the thread-isolated properties were installed need to be kept;
+		// clearing the original properties first would briefly remove properties other threads may need
+		Properties installedProperties = System.getProperties();
+		globalProperties.keySet().retainAll(installedProperties.keySet());
+		globalProperties.putAll(installedProperties);
+		System.setProperties(globalProperties);
+		globalProperties = null;
+	}
+
+	/**
+	 * Sets the property for the current thread.
+	 */
+	void setIsolated(String key, String value) {
+		updateOverlay(key, value, value.equals(super.getProperty(key)));
+	}
+
+	/**
+	 * Clears the property for the current thread.
+	 */
+	void clearIsolated(String key) {
+		updateOverlay(key, null, super.getProperty(key) == null);
+	}
+
+	private void updateOverlay(String key, String value, boolean sameAsGlobal) {
+		Map<String, String> overlay = overlays.get();
+		if (sameAsGlobal) {
+			if (overlay == null)
+				return;
+			overlay.remove(key);
+			// once nothing deviates from the global properties, the thread no longer needs to be isolated
+			if (overlay.isEmpty())
+				overlays.remove();
+		} else {
+			if (overlay == null) {
+				overlay = new HashMap<>();
+				overlays.set(overlay);
+			}
+			overlay.put(key, value);
+		}
+	}
+
+	@Override
+	public String getProperty(String key) {
+		Map<String, String> overlay = overlays.get();
+		if (overlay != null && overlay.containsKey(key))
+			return overlay.get(key);
+		return super.getProperty(key);
+	}
+
+	@Override
+	public Object get(Object key) {
+		Map<String, String> overlay = overlays.get();
+		if (overlay != null && overlay.containsKey(key))
+			return overlay.get(key);
+		return super.get(key);
+	}
+
+	@Override
+	public Object getOrDefault(Object key, Object defaultValue) {
+		Object value = get(key);
+		return value != null ? value : defaultValue;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		Map<String, String> overlay = overlays.get();
+		if (overlay != null && overlay.containsKey(key))
+			return overlay.get(key) != null;
+		return super.containsKey(key);
+	}
+
+	@Override
+	public Set<String> stringPropertyNames() {
+		Map<String, String> overlay = overlays.get();
+		if (overlay == null)
+			return super.stringPropertyNames();
+		Set<String> names = new HashSet<>(super.stringPropertyNames());
+		overlay.forEach((key, value) -> {
+			if (value == null)
+				names.remove(key);
+			else
+				names.add(key);
+		});
+		return Collections.unmodifiableSet(names);
+	}
+
+	@Override
+	public Enumeration<?> propertyNames() {
+		Map<String, String> overlay = overlays.get();
+		if (overlay == null)
+			return super.propertyNames();
+		Set<Object> names = new HashSet<>(Collections.list(super.propertyNames()));
+		overlay.forEach((key, value) -> {
+			if (value == null)
+				names.remove(key);
+			else
+				names.add(key);
+		});
+		return Collections.enumeration(names);
+	}
+
+	@Override
+	public Set<Object> keySet() {
+		Map<Object, Object> isolatedProperties = isolatedSnapshot();
+		return isolatedProperties == null ? super.keySet() : Collections.unmodifiableSet(isolatedProperties.keySet());
+	}
+
+	@Override
+	public Set<Map.Entry<Object, Object>> entrySet() {
+		Map<Object, Object> isolatedProperties = isolatedSnapshot();
+		return isolatedProperties == null ? super.entrySet()
+				: Collections.unmodifiableSet(isolatedProperties.entrySet());
+	}
+
+	/**
+	 * Returns a copy of the properties as the current thread sees them or {@code null} if it has no overlay.
+	 */
+	private Map<Object, Object> isolatedSnapshot() {
+		Map<String, String> overlay = overlays.get();
+		if (overlay == null)
+			return null;
+		Map<Object, Object> properties = new HashMap<>();
+		// iterating over the global properties while another thread changes them would fail
+		synchronized (this) {
+			for (Map.Entry<Object, Object> entry : super.entrySet()) {
+				properties.put(entry.getKey(), entry.getValue());
+			}
+		}
+		overlay.forEach((key, value) -> {
+			if (value == null)
+				properties.remove(key);
+			else
+				properties.put(key, value);
+		});
+		return properties;
+	}
+
+	@Override
+	public Object setProperty(String key, String value) {
+		Map<String, String> overlay = overlays.get();
+		if (overlay == null)
+			return super.setProperty(key, value);
+		String previousValue = getProperty(key);
+		overlay.put(key, value);
+		return previousValue;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		Map<String, String> overlay = overlays.get();
+		if (overlay == null || !(key instanceof String))
+			return super.remove(key);
+		String previousValue = getProperty((String) key);
+		overlay.put((String) key, null);
+		return previousValue;
+	}
+
+}
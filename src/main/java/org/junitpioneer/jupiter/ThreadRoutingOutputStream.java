@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+/**
+ * An output stream that routes writes to the stream that was set for the current thread
+ * or, if there is none, to the original {@code System.out} or {@code System.err}, so that
+ * {@link StdIo @StdIo} only captures the output of the thread that runs the test (and threads it starts).
+ *
+ * <p>It's installed once, wrapped in a {@link PrintStream}, as {@code System.out} and {@code System.err},
+ * respectively. Threads started during a test inherit its stream until the test ends, so their output is
+ * captured, but the output of threads in pools that were started before isn't.</p>
+ *
+ * <p>Since the {@code PrintStream} encodes text with the default charset, output that isn't captured
+ * reaches the original stream as bytes in that charset.</p>
+ */
+final class ThreadRoutingOutputStream extends OutputStream {
+
+	private static int installations;
+	private static ThreadRoutingOutputStream out;
+	private static ThreadRoutingOutputStream err;
+
+	private final PrintStream original;
+	private final PrintStream routing;
+	// threads write to the same stream as the thread that started them
+	private final TestScopedThreadLocal<OutputStream> targets = new TestScopedThreadLocal<>(target -> target);
+
+	private ThreadRoutingOutputStream(PrintStream original) {
+		this.original = original;
+		this.routing = new PrintStream(this, true);
+	}
+
+	/**
+	 * Replaces {@code System.out} and {@code System.err} with thread-routing streams (unless that already
+	 * happened) and returns a resource that undoes that when closed.
+	 */
+	static synchronized CloseableResource install() {
+		if (installations++ == 0) {
+			out = new ThreadRoutingOutputStream(System.out); //NOSONAR never writing to System.out, only storing it
+			err = new ThreadRoutingOutputStream(System.err); //NOSONAR never writing to System.err, only storing it
+			System.setOut(out.routing);
+			System.setErr(err.routing);
+		}
+		return ThreadRoutingOutputStream::uninstall;
+	}
+
+	private static synchronized void uninstall() {
+		if (--installations > 0)
+			return;
+
+		// if other code replaced the streams in the meantime, it's responsible for them
+		if (System.out == out.routing) //NOSONAR only comparing System.out, not writing to it
+			System.setOut(out.original);
+		if (System.err == err.routing) //NOSONAR only comparing System.err, not writing to it
+			System.setErr(err.original);
+		out = null;
+		err = null;
+	}
+
+	static synchronized ThreadRoutingOutputStream out() {
+		return out;
+	}
+
+	static synchronized ThreadRoutingOutputStream err() {
+		return err;
+	}
+
+	/**
+	 * Routes the current thread's writes to the given stream (or to the original stream if it's {@code null})
+	 * and returns the stream they were routed to before.
+	 */
+	OutputStream route(OutputStream target) {
+		OutputStream previousTarget = targets.get();
+		if (target == null)
+			targets.remove();
+		else
+			targets.set(target);
+		return previousTarget;
+	}
+
+	private OutputStream target() {
+		OutputStream target = targets.get();
+		return target != null ? target : original;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		target().write(b);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		target().write(b, off, len);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		target().flush();
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+/**
+ * {@code @TimeZoneSource} is an {@link ArgumentsSource} that provides {@link java.util.TimeZone time zones}
+ * and makes each of them the default time zone for the invocation it is provided to.
+ *
+ * <p>It can be used on a {@code @ParameterizedTest} method, in which case the first {@code TimeZone}
+ * parameter becomes the default, or on a {@code @CartesianTest} parameter, in which case that
+ * parameter becomes the default. Either way, the default time zone is only set for the duration of the
+ * invocation and restored afterwards.</p>
+ *
+ * <p>The time zones are either the ones specified by {@link #value() IDs} or, if none are,
+ * all {@link java.util.TimeZone#getAvailableIDs() available time zones}. In both cases, they can be
+ * filtered with {@link #matches() regular expressions}.</p>
+ *
+ * <p>During
+ * <a href="https://junit.org/junit5/docs/current/user-guide/#writing-tests-parallel-execution" target="_top">parallel test execution</a>,
+ * methods annotated with {@code @TimeZoneSource} are treated like ones annotated with
+ * {@link WritesDefaultTimeZone @WritesDefaultTimeZone}. Jupiter doesn't apply resource locks that are declared
+ * on parameters, though, so {@code @CartesianTest} methods that use it on a parameter need to be annotated
+ * with {@code @WritesDefaultTimeZone} themselves.</p>
+ *
+ * <p>For more details and examples, see
+ * <a href="https://junit-pioneer.org/docs/default-locale-timezone/" target="_top">the documentation on <code>@DefaultLocale</code> and <code>@DefaultTimeZone</code></a>.
+ * </p>
+ *
+ * @since 1.9.0
+ * @see LocaleSource
+ */
+@Target({ ElementType.METHOD, ElementType.PARAMETER })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@WritesDefaultTimeZone
+@ArgumentsSource(TimeZoneSourceArgumentsProvider.class)
+@ExtendWith(SourcedDefaultsExtension.class)
+public @interface TimeZoneSource {
+
+	/**
+	 * IDs of the time zones to provide. See {@link java.util.TimeZone#getTimeZone(String)}
+	 * for more information about valid IDs.
+	 *
+	 * <p>If empty, all available time zones are provided (sorted by their IDs).</p>
+	 */
+	String[] value() default {};
+
+	/**
+	 * Regular expressions of which a time zone's ID has to match at least one
+	 * for the time zone to be provided.
+	 *
+	 * <p>If empty, all time zones are provided.</p>
+	 */
+	String[] matches() default {};
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import static java.util.stream.Collectors.toList;
+
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.support.AnnotationConsumer;
+import org.junitpioneer.jupiter.cartesian.CartesianParameterArgumentsProvider;
+
+/**
+ * Provides the time zones configured by {@link TimeZoneSource @TimeZoneSource} to {@code @ParameterizedTest}
+ * and {@code @CartesianTest} methods. Setting them as defaults is up to the {@link SourcedDefaultsExtension}.
+ */
+class TimeZoneSourceArgumentsProvider implements ArgumentsProvider, CartesianParameterArgumentsProvider<TimeZone>,
+		AnnotationConsumer<TimeZoneSource> {
+
+	private TimeZoneSource source;
+
+	@Override
+	public void accept(TimeZoneSource source) {
+		this.source = source;
+	}
+
+	@Override
+	public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
+		return provideTimeZoneIds().stream().map(TimeZoneSourceArgumentsProvider::createTimeZone).map(Arguments::of);
+	}
+
+	@Override
+	public Stream<TimeZone> provideArguments(ExtensionContext context, Parameter parameter) {
+		return provideTimeZoneIds().stream().map(TimeZoneSourceArgumentsProvider::createTimeZone);
+	}
+
+	private List<String> provideTimeZoneIds() {
+		// available IDs are sorted
+		String[] timeZoneIds = source.value().length > 0 ? source.value() : TimeZone.getAvailableIDs();
+		List<Pattern> patterns = Arrays.stream(source.matches()).map(Pattern::compile).collect(toList());
+		List<String> matchingTimeZoneIds = Arrays
+				.stream(timeZoneIds)
+				.filter(id -> patterns.isEmpty() || patterns.stream().anyMatch(pattern -> pattern.matcher(id).matches()))
+				.distinct()
+				.collect(toList());
+		if (matchingTimeZoneIds.isEmpty())
+			throw new ExtensionConfigurationException(
+				"@TimeZoneSource not configured correctly. No time zone matches the specified regular expressions.");
+		return matchingTimeZoneIds;
+	}
+
+	private static TimeZone createTimeZone(String timeZoneId) {
+		return DefaultTimeZoneExtension.createTimeZone(TimeZoneSource.class, timeZoneId);
+	}
+
+}
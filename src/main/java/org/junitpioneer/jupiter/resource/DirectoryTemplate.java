@@ -0,0 +1,266 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import static java.util.Collections.unmodifiableList;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A directory whose contents are used to populate new temporary directories.
+ *
+ * <p>The directory tree of a template is only walked once and the resulting manifest is cached and
+ * reused for every copy. Since adding, removing, or renaming an entry changes the last-modified time
+ * of its directory, the manifest is rescanned if that time changed for any of the template's
+ * directories. Files are always copied with their current content, several of them at once on a
+ * small pool of threads that all templates share.</p>
+ */
+final class DirectoryTemplate {
+
+	static final String CLASSPATH_PREFIX = "classpath:";
+
+	private static final Map<Path, DirectoryTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+	// copying is I/O-bound, but beyond a handful of threads, the disk rather than the thread count is the limit
+	private static final int COPY_PARALLELISM = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+	// shared by all copies, so tests that create many temporary directories at once share the same threads
+	private static final ExecutorService COPYING_THREADS = copyingThreads();
+
+	private final Path root;
+	// both lists contain paths relative to `root`; directories are ordered parents-first
+	private final List<Path> directories;
+	private final List<Path> files;
+	// the last-modified times of `root` and all directories (relative to `root`) when they were scanned
+	private final Map<Path, FileTime> directoryTimes;
+
+	private DirectoryTemplate(Path root, List<Path> directories, List<Path> files,
+			Map<Path, FileTime> directoryTimes) {
+		this.root = root;
+		this.directories = unmodifiableList(directories);
+		this.files = unmodifiableList(files);
+		this.directoryTimes = directoryTimes;
+	}
+
+	/**
+	 * Returns the template at the given location, which is either a path on the file system
+	 * or, if prefixed with {@value #CLASSPATH_PREFIX}, the name of a classpath resource.
+	 */
+	static DirectoryTemplate of(String location) {
+		Path root = resolve(location).toAbsolutePath().normalize();
+		if (!Files.isDirectory(root)) {
+			throw new IllegalArgumentException(
+				String.format("Template directory `%s` does not exist or is not a directory", location));
+		}
+		DirectoryTemplate cached = TEMPLATES.get(root);
+		if (cached != null && cached.isUpToDate())
+			return cached;
+		// scanning happens outside of the map's locks, so it doesn't block other templates; if several
+		// threads scan the same template at once, they all get an up-to-date result and the last one is kept
+		try {
+			DirectoryTemplate scanned = scan(root);
+			TEMPLATES.put(root, scanned);
+			return scanned;
+		}
+		catch (UncheckedIOException ex) {
+			throw new IllegalArgumentException(
+				String.format("Template directory `%s` could not be read", location), ex.getCause());
+		}
+	}
+
+	private static Path resolve(String location) {
+		if (!location.startsWith(CLASSPATH_PREFIX)) {
+			return Paths.get(location);
+		}
+
+		String resourceName = location.substring(CLASSPATH_PREFIX.length());
+		if (resourceName.startsWith("/")) {
+			resourceName = resourceName.substring(1);
+		}
+		URL resource = classLoader().getResource(resourceName);
+		if (resource == null) {
+			throw new IllegalArgumentException(
+				String.format("Template directory `%s` could not be found on the classpath", location));
+		}
+		if (!"file".equals(resource.getProtocol())) {
+			throw new IllegalArgumentException(String
+					.format("Template directory `%s` is not a directory on the file system but `%s`", location,
+						resource));
+		}
+		try {
+			return Paths.get(resource.toURI());
+		}
+		catch (URISyntaxException ex) {
+			throw new IllegalArgumentException(
+				String.format("Template directory `%s` has an invalid location `%s`", location, resource), ex);
+		}
+	}
+
+	private static ClassLoader classLoader() {
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		return contextClassLoader != null ? contextClassLoader : DirectoryTemplate.class.getClassLoader();
+	}
+
+	private static DirectoryTemplate scan(Path root) {
+		List<Path> directories = new ArrayList<>();
+		List<Path> files = new ArrayList<>();
+		Map<Path, FileTime> directoryTimes = new HashMap<>();
+		try {
+			Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+					// the time is taken before the directory's entries are visited, so if one of them
+					// changes during the scan, the template is rescanned on next use
+					directoryTimes.put(root.relativize(dir), attrs.lastModifiedTime());
+					if (!dir.equals(root)) {
+						directories.add(root.relativize(dir));
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					files.add(root.relativize(file));
+					return FileVisitResult.CONTINUE;
+				}
+
+			});
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return new DirectoryTemplate(root, directories, files, directoryTimes);
+	}
+
+	private boolean isUpToDate() {
+		try {
+			for (Entry<Path, FileTime> directoryTime : directoryTimes.entrySet()) {
+				if (!Files.getLastModifiedTime(root.resolve(directoryTime.getKey())).equals(directoryTime.getValue()))
+					return false;
+			}
+			return true;
+		}
+		catch (IOException ex) {
+			// e.g. the directory was deleted
+			return false;
+		}
+	}
+
+	/**
+	 * Copies the template's contents into the given (existing and empty) directory.
+	 */
+	void copyTo(Path target) throws IOException {
+		// the directory structure needs to be in place before any file can be copied
+		for (Path directory : directories) {
+			Files.createDirectory(target.resolve(directory));
+		}
+
+		int stripes = Math.min(files.size(), COPY_PARALLELISM);
+		if (stripes <= 1) {
+			copyStripe(target, 0, 1);
+			return;
+		}
+		// copying blocks on I/O, which doesn't belong on the common fork-join pool that the whole JVM shares
+		List<Future<?>> copies = new ArrayList<>();
+		for (int stripe = 0; stripe < stripes; stripe++) {
+			int first = stripe;
+			copies.add(COPYING_THREADS.submit(() -> {
+				copyStripe(target, first, stripes);
+				return null;
+			}));
+		}
+		awaitCopies(copies);
+	}
+
+	/**
+	 * Copies every {@code step}-th file, starting with the one at index {@code first}.
+	 */
+	private void copyStripe(Path target, int first, int step) throws IOException {
+		for (int i = first; i < files.size(); i += step) {
+			Path file = files.get(i);
+			Files.copy(root.resolve(file), target.resolve(file), StandardCopyOption.COPY_ATTRIBUTES);
+		}
+	}
+
+	private static void awaitCopies(List<Future<?>> copies) throws IOException {
+		Throwable failure = null;
+		for (Future<?> copy : copies) {
+			try {
+				copy.get();
+			}
+			catch (ExecutionException ex) {
+				if (failure == null) {
+					failure = ex.getCause();
+					// there's no point in copying the rest
+					copies.forEach(other -> other.cancel(true));
+				} else if (!(ex.getCause() instanceof ClosedByInterruptException)) {
+					failure.addSuppressed(ex.getCause());
+				}
+			}
+			catch (CancellationException ex) {
+				// only happens after an earlier copy failed
+			}
+			catch (InterruptedException ex) {
+				copies.forEach(other -> other.cancel(true));
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while copying template");
+			}
+		}
+		if (failure instanceof IOException)
+			throw (IOException) failure;
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		if (failure instanceof Error)
+			throw (Error) failure;
+	}
+
+	private static ExecutorService copyingThreads() {
+		AtomicInteger threadCounter = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(COPY_PARALLELISM, COPY_PARALLELISM, 10, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<>(), runnable -> {
+				Thread thread = new Thread(runnable,
+					"junit-pioneer-template-copier-" + threadCounter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		// the pool is only busy while temporary directories are created, so its threads don't need to linger
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+}
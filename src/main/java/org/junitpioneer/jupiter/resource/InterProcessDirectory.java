@@ -0,0 +1,265 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * {@code InterProcessDirectory} is a "resource factory" base class for directories that are
+ * expensive to populate and should be shared by all JVMs that run tests on the same machine,
+ * e.g. by all forks of a Gradle or Maven test run.
+ *
+ * <p>Subclasses implement {@link #populate(Path)} to fill the directory. The first JVM that needs
+ * the resource populates it, all others attach to the existing directory, and the last one that
+ * closes it deletes it. To coordinate that, each JVM that uses the resource holds a <i>lease</i>,
+ * which is stored (together with the directory itself) in the {@link #leaseDirectory() lease directory}.
+ * Leases are files that their JVM holds a file lock on until it returns them.</p>
+ *
+ * <p>JVMs that find a populated directory attach to it as it is, without checking or copying its
+ * content, so the directory is shared by many tests in different JVMs and they must treat it as
+ * read-only. Changing it would affect all other tests that use it at the same time or later.</p>
+ *
+ * <p>Within a JVM, this factory is meant to be used with {@link Shared @Shared} (and usually
+ * {@link Shared.Scope#GLOBAL GLOBAL} scope), e.g.:</p>
+ *
+ * <pre>
+ * public class SearchIndex extends InterProcessDirectory {
+ *
+ *     protected void populate(Path directory) {
+ *         // build the index in `directory`
+ *     }
+ *
+ * }
+ *
+ * &#64;Test
+ * void test(&#64;Shared(factory = SearchIndex.class, name = "index", scope = GLOBAL) Path index) {
+ *     // ...
+ * }
+ * </pre>
+ *
+ * <p>If a JVM crashes, the operating system releases its file locks, which marks its leases as stale.
+ * Stale leases are deleted the next time a JVM takes or returns a lease, so the directory is still
+ * deleted when the last living JVM returns its lease. If a JVM finds a populated directory without
+ * any living leases, or a directory that a crashed JVM was populating, it populates it from scratch.</p>
+ *
+ * <p>It is part of the "resources" JUnit Jupiter extension, which pertains to anything that needs
+ * to be injected into tests and which may need to be started up or torn down. Temporary
+ * directories are a common example.</p>
+ *
+ * <p>This class is intended for <i>users</i>.</p>
+ *
+ * <p>For more details and examples, see
+ * <a href="https://junit-pioneer.org/docs/resources/" target="_top">the documentation on resources</a>.</p>
+ *
+ * @since 1.9.0
+ * @see ResourceFactory
+ * @see Shared
+ */
+public abstract class InterProcessDirectory implements ResourceFactory<Path> {
+
+	private static final String LOCK_FILE = "lock";
+	private static final String READY_FILE = "ready";
+	private static final String LEASES_DIRECTORY = "leases";
+	private static final String CONTENT_DIRECTORY = "content";
+
+	// a file lock is held on behalf of the entire JVM, so threads need to be coordinated separately
+	private static final ConcurrentMap<Path, Lock> JVM_LOCKS = new ConcurrentHashMap<>();
+
+	@Override
+	public final Resource<Path> create(List<String> arguments) throws Exception {
+		if (!arguments.isEmpty()) {
+			throw new IllegalArgumentException("Expected no arguments, but got " + arguments.size());
+		}
+		Path leaseDirectory = leaseDirectory().toAbsolutePath().normalize();
+		Files.createDirectories(leaseDirectory.resolve(LEASES_DIRECTORY));
+		Path lease = leaseDirectory.resolve(LEASES_DIRECTORY).resolve(UUID.randomUUID().toString());
+
+		FileChannel leaseChannel = withLock(leaseDirectory, () -> {
+			// a directory without living leases was left behind by crashed JVMs and may be outdated
+			if (!Files.exists(leaseDirectory.resolve(READY_FILE)) || hasNoLeases(leaseDirectory))
+				populateContent(leaseDirectory);
+			return takeLease(lease);
+		});
+		return new InterProcessDirectoryResource(leaseDirectory, lease, leaseChannel);
+	}
+
+	private static FileChannel takeLease(Path lease) throws IOException {
+		FileChannel channel = FileChannel.open(lease, CREATE_NEW, WRITE);
+		try {
+			// the lock is released when the channel is closed, either when returning the lease or when the JVM dies
+			channel.lock();
+			return channel;
+		}
+		catch (IOException | RuntimeException ex) {
+			channel.close();
+			Files.deleteIfExists(lease);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Deletes stale leases and returns whether any leases are left. A lease is stale if no JVM
+	 * holds a lock on it, which means that its JVM crashed before returning it.
+	 */
+	private static boolean hasNoLeases(Path leaseDirectory) throws IOException {
+		List<Path> leases;
+		try (Stream<Path> files = Files.list(leaseDirectory.resolve(LEASES_DIRECTORY))) {
+			leases = files.collect(toList());
+		}
+		Iterator<Path> leasesToCheck = leases.iterator();
+		while (leasesToCheck.hasNext()) {
+			Path lease = leasesToCheck.next();
+			if (isStale(lease)) {
+				Files.deleteIfExists(lease);
+				leasesToCheck.remove();
+			}
+		}
+		return leases.isEmpty();
+	}
+
+	private static boolean isStale(Path lease) throws IOException {
+		try (FileChannel channel = FileChannel.open(lease, WRITE)) {
+			FileLock lock = channel.tryLock();
+			// another JVM holds the lease
+			if (lock == null)
+				return false;
+			lock.release();
+			return true;
+		}
+		catch (OverlappingFileLockException ex) {
+			// this JVM holds the lease
+			return false;
+		}
+	}
+
+	private void populateContent(Path leaseDirectory) throws Exception {
+		Path content = leaseDirectory.resolve(CONTENT_DIRECTORY);
+		// an earlier attempt may have failed (or its JVM crashed) half-way through
+		Files.deleteIfExists(leaseDirectory.resolve(READY_FILE));
+		deleteRecursively(content);
+		Files.createDirectories(content);
+		try {
+			populate(content);
+		}
+		catch (Exception ex) {
+			deleteRecursively(content);
+			throw ex;
+		}
+		Files.createFile(leaseDirectory.resolve(READY_FILE));
+	}
+
+	/**
+	 * Returns the directory in which the shared directory and the leases on it are stored.
+	 *
+	 * <p>All JVMs that share the directory must use the same lease directory. By default, it is
+	 * a directory in {@code java.io.tmpdir} that is named after the factory class. To keep test
+	 * runs of different projects (or different checkouts of the same project) apart, override this
+	 * method and return a directory within the build directory instead.</p>
+	 */
+	protected Path leaseDirectory() {
+		return Paths.get(System.getProperty("java.io.tmpdir"), "junit-pioneer-" + getClass().getName());
+	}
+
+	/**
+	 * Populates the shared directory. This is called at most once per test run and machine,
+	 * unless all leases were returned in the meantime.
+	 *
+	 * @param directory the (empty) directory to populate
+	 */
+	protected abstract void populate(Path directory) throws Exception;
+
+	private static <T> T withLock(Path leaseDirectory, LockedAction<T> action) throws Exception {
+		Lock jvmLock = JVM_LOCKS.computeIfAbsent(leaseDirectory, __ -> new ReentrantLock());
+		jvmLock.lock();
+		try (FileChannel channel = FileChannel.open(leaseDirectory.resolve(LOCK_FILE), CREATE, WRITE)) {
+			FileLock fileLock = channel.lock();
+			try {
+				return action.run();
+			}
+			finally {
+				fileLock.release();
+			}
+		}
+		finally {
+			jvmLock.unlock();
+		}
+	}
+
+	private static void deleteRecursively(Path directory) throws IOException {
+		if (Files.exists(directory))
+			Files.walkFileTree(directory, PathDeleter.INSTANCE);
+	}
+
+	private interface LockedAction<T> {
+
+		T run() throws Exception;
+
+	}
+
+	private static final class InterProcessDirectoryResource implements Resource<Path> {
+
+		private final Path leaseDirectory;
+		private final Path lease;
+		private final FileChannel leaseChannel;
+
+		InterProcessDirectoryResource(Path leaseDirectory, Path lease, FileChannel leaseChannel) {
+			this.leaseDirectory = leaseDirectory;
+			this.lease = lease;
+			this.leaseChannel = leaseChannel;
+		}
+
+		@Override
+		public Path get() {
+			return leaseDirectory.resolve(CONTENT_DIRECTORY);
+		}
+
+		@Override
+		public void close() throws Exception {
+			withLock(leaseDirectory, () -> {
+				// some operating systems don't delete files that are open, so release the lease first
+				leaseChannel.close();
+				Files.deleteIfExists(lease);
+				if (hasNoLeases(leaseDirectory)) {
+					// delete the marker first, so a half-deleted directory is never used
+					Files.deleteIfExists(leaseDirectory.resolve(READY_FILE));
+					deleteRecursively(leaseDirectory.resolve(CONTENT_DIRECTORY));
+				}
+				return null;
+			});
+		}
+
+		@Override
+		public String toString() {
+			return "InterProcessDirectoryResource{" + "leaseDirectory=" + leaseDirectory + ", lease=" + lease + '}';
+		}
+
+	}
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import static java.util.Arrays.asList;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Closes the resources and resource factories that belong to one extension context when that
+ * context ends.
+ *
+ * <p>JUnit closes a store's {@link ExtensionContext.Store.CloseableResource closeable resources}
+ * one after another. To close them concurrently instead, the resources extension doesn't put
+ * resources and factories into the store but registers them with a {@code ResourceCloser},
+ * which is the only closeable value that is stored.</p>
+ *
+ * <p>Resources are registered in groups (usually a resource and its factory) that are closed in
+ * the given order. Different groups are independent of one another, so they are closed in parallel
+ * if {@code parallelism} is greater than one. Otherwise, they are closed one after another in
+ * reverse order of their registration, just like JUnit would.</p>
+ *
+ * <p>If there's a timeout, each group gets that long from the moment it starts closing. A group that
+ * doesn't finish in time is interrupted and given up on, and the next group starts closing.</p>
+ *
+ * <p>Closing removes all registered resources from the closer, so closing it again only closes
+ * resources that were registered in the meantime.</p>
+ */
+class ResourceCloser implements ExtensionContext.Store.CloseableResource {
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+	// shared by all closers, so closing a context doesn't start a thread pool of its own; it isn't bounded,
+	// because threads that were given up on may stay busy with a resource that never closes
+	private static final ExecutorService CLOSING_THREADS = Executors.newCachedThreadPool(daemonThreadFactory());
+
+	private final int parallelism;
+	// `Duration.ZERO` means "no timeout"
+	private final Duration timeout;
+	private final Deque<List<ExtensionContext.Store.CloseableResource>> groups = new ConcurrentLinkedDeque<>();
+
+	ResourceCloser(int parallelism, Duration timeout) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+		}
+		if (timeout.isNegative()) {
+			throw new IllegalArgumentException("Timeout must not be negative, but was " + timeout);
+		}
+		this.parallelism = parallelism;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Registers resources that will be closed in the given order.
+	 */
+	void register(ExtensionContext.Store.CloseableResource... resources) {
+		groups.push(asList(resources));
+	}
+
+	@Override
+	public void close() throws Throwable {
+		List<List<ExtensionContext.Store.CloseableResource>> closing = new ArrayList<>();
+		// `groups` is a stack, so this polls in reverse order of registration
+		List<ExtensionContext.Store.CloseableResource> group;
+		while ((group = groups.poll()) != null) {
+			closing.add(group);
+		}
+
+		List<Throwable> failures = needsThreads(closing.size()) ? closeOnThreads(closing) : closeSequentially(closing);
+		if (failures.isEmpty())
+			return;
+
+		Throwable first = failures.get(0);
+		failures.stream().skip(1).forEach(first::addSuppressed);
+		throw first;
+	}
+
+	private boolean needsThreads(int groupCount) {
+		// without a timeout, the closer never gives up on a group, so it only needs threads to close groups in parallel
+		if (timeout.isZero())
+			return parallelism > 1 && groupCount > 1;
+		return groupCount > 0;
+	}
+
+	private static List<Throwable> closeSequentially(List<List<ExtensionContext.Store.CloseableResource>> closing) {
+		List<Throwable> failures = new ArrayList<>();
+		closing.forEach(group -> failures.addAll(close(group)));
+		return failures;
+	}
+
+	/**
+	 * Closes up to {@code parallelism} groups at a time, each on its own thread, and gives up on
+	 * groups that don't close within the timeout. A group's timeout starts when it starts closing,
+	 * so groups that wait for their turn are neither timed out nor abandoned.
+	 */
+	private List<Throwable> closeOnThreads(List<List<ExtensionContext.Store.CloseableResource>> closing)
+			throws InterruptedException {
+		Deque<List<ExtensionContext.Store.CloseableResource>> pending = new ArrayDeque<>(closing);
+		BlockingQueue<GroupClosing> finished = new LinkedBlockingQueue<>();
+		List<GroupClosing> running = new ArrayList<>();
+		List<Throwable> failures = new ArrayList<>();
+		while (!pending.isEmpty() || !running.isEmpty()) {
+			while (running.size() < parallelism && !pending.isEmpty()) {
+				running.add(new GroupClosing(pending.poll(), finished));
+			}
+
+			GroupClosing done = timeout.isZero() ? finished.take()
+					: finished.poll(nanosUntilFirstDeadline(running), TimeUnit.NANOSECONDS);
+			if (done != null) {
+				// a group that was given up on still reports when it finishes, but its failure was already recorded
+				if (running.remove(done))
+					failures.addAll(done.failures);
+				continue;
+			}
+
+			Iterator<GroupClosing> groupsToCheck = running.iterator();
+			while (groupsToCheck.hasNext()) {
+				GroupClosing group = groupsToCheck.next();
+				if (group.isOverdue()) {
+					// the group's thread is interrupted and then abandoned, which frees its slot for the next group
+					group.giveUp();
+					groupsToCheck.remove();
+					String message = String.format("Closing %s did not finish within %s", group.resources, timeout);
+					failures.add(new TimeoutException(message));
+				}
+			}
+		}
+		return failures;
+	}
+
+	private long nanosUntilFirstDeadline(List<GroupClosing> running) {
+		return running.stream().mapToLong(GroupClosing::remainingNanos).min().orElse(0);
+	}
+
+	private static List<Throwable> close(List<ExtensionContext.Store.CloseableResource> group) {
+		List<Throwable> failures = new ArrayList<>();
+		for (ExtensionContext.Store.CloseableResource resource : group) {
+			try {
+				resource.close();
+			}
+			catch (Throwable throwable) {
+				failures.add(throwable);
+			}
+		}
+		return failures;
+	}
+
+	private static ThreadFactory daemonThreadFactory() {
+		return runnable -> {
+			Thread thread = new Thread(runnable, "junit-pioneer-resource-closer-" + THREAD_COUNTER.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * A group that is closing on one of the {@link #CLOSING_THREADS}.
+	 */
+	private final class GroupClosing {
+
+		private final List<ExtensionContext.Store.CloseableResource> resources;
+		private final Future<?> result;
+		private volatile boolean started;
+		private volatile long startNanos;
+		// written before the group is added to the `finished` queue, so it's visible to whoever takes it from there
+		private List<Throwable> failures;
+
+		GroupClosing(List<ExtensionContext.Store.CloseableResource> resources, BlockingQueue<GroupClosing> finished) {
+			this.resources = resources;
+			this.result = CLOSING_THREADS.submit(() -> {
+				startNanos = System.nanoTime();
+				started = true;
+				failures = close(resources);
+				finished.add(this);
+			});
+		}
+
+		long remainingNanos() {
+			// a group that didn't start yet has the whole timeout ahead of it
+			if (!started)
+				return timeout.toNanos();
+			return Math.max(timeout.toNanos() - (System.nanoTime() - startNanos), 0);
+		}
+
+		boolean isOverdue() {
+			return started && remainingNanos() == 0;
+		}
+
+		void giveUp() {
+			result.cancel(true);
+		}
+
+	}
+
+}
@@ -12,23 +12,28 @@ package org.junitpioneer.jupiter.resource;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
-import static java.util.Comparator.comparing;
 import static java.util.stream.Collectors.toList;
 
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.IntStream;
+import java.util.function.Predicate;
 
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.extension.DynamicTestInvocationContext;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.InvocationInterceptor;
@@ -36,17 +41,39 @@ import org.junit.jupiter.api.extension.ParameterContext;
 import org.junit.jupiter.api.extension.ParameterResolutionException;
 import org.junit.jupiter.api.extension.ParameterResolver;
 import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.junit.jupiter.api.extension.TestWatcher;
+import org.junit.platform.commons.annotation.Testable;
 import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
 import org.junit.platform.commons.support.ReflectionSupport;
 
-class ResourceExtension implements ParameterResolver, InvocationInterceptor {
+class ResourceExtension implements ParameterResolver, InvocationInterceptor, TestWatcher {
 
 	private static final ExtensionContext.Namespace NAMESPACE = //
 		ExtensionContext.Namespace.create(ResourceExtension.class);
 
 	private static final Lock SHARED_ANNOTATION_RESOLUTION_LOCK = new ReentrantLock();
 
-	private static final AtomicLong KEY_GENERATOR = new AtomicLong(0);
+	/**
+	 * If this configuration parameter is set to {@code true}, every invocation that uses shared
+	 * resources publishes a report entry (with key {@link #REPORT_ENTRY_KEY}) that states how long
+	 * it waited for exclusive access to them.
+	 */
+	static final String REPORT_LOCK_WAIT_PARAMETER = "junitpioneer.resources.report-lock-wait";
+
+	static final String REPORT_ENTRY_KEY = "ResourceExtension";
+
+	/**
+	 * The number of threads that close the resources of a context when it ends
+	 * (default is 1, i.e. resources are closed one after another).
+	 */
+	static final String CLOSE_PARALLELISM_PARAMETER = "junitpioneer.resources.close-parallelism";
+
+	/**
+	 * The number of milliseconds to wait for each resource to close
+	 * (default is 0, i.e. wait as long as it takes).
+	 */
+	static final String CLOSE_TIMEOUT_PARAMETER = "junitpioneer.resources.close-timeout-millis";
 
 	@Override
 	public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
@@ -65,19 +92,18 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 	@Override
 	public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext)
 			throws ParameterResolutionException {
+		ResourceMetricsRecorder metrics = metrics(extensionContext);
 		Optional<New> newAnnotation = parameterContext.findAnnotation(New.class);
 		if (newAnnotation.isPresent()) {
-			ExtensionContext.Store testStore = extensionContext.getStore(NAMESPACE);
-			Object resource = resolveNew(newAnnotation.get(), testStore);
+			Object resource = resolveNew(newAnnotation.get(), resources(extensionContext).closer, metrics);
 			return checkType(resource, parameterContext.getParameter().getType());
 		}
 
 		Optional<Shared> sharedAnnotation = parameterContext.findAnnotation(Shared.class);
 		if (sharedAnnotation.isPresent()) {
-			Parameter[] parameters = parameterContext.getDeclaringExecutable().getParameters();
-			ExtensionContext.Store scopedStore = scopedStore(extensionContext, sharedAnnotation.get().scope());
-			ExtensionContext.Store rootStore = extensionContext.getRoot().getStore(NAMESPACE);
-			Object resource = resolveShared(sharedAnnotation.get(), parameters, scopedStore, rootStore);
+			ExtensionContext scopedContext = scopedContext(extensionContext, sharedAnnotation.get().scope());
+			Object resource = resolveShared(sharedAnnotation.get(), parameterContext, extensionContext, scopedContext,
+				metrics);
 			return checkType(resource, parameterContext.getParameter().getType());
 		}
 
@@ -97,14 +123,13 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 		return type.cast(resource);
 	}
 
-	private Object resolveNew(New newAnnotation, ExtensionContext.Store store) {
+	private Object resolveNew(New newAnnotation, ResourceCloser closer, ResourceMetricsRecorder metrics) {
+		ResourceMetricsRecorder.Recording recording = metrics.recordingFor(newAnnotation.value().getTypeName());
 		ResourceFactory<?> resourceFactory = ReflectionSupport.newInstance(newAnnotation.value());
-		store.put(uniqueKey(), resourceFactory);
-
-		Resource<?> resource = newResource(newAnnotation, resourceFactory);
-		store.put(uniqueKey(), resource);
+		Resource<?> resource = newResource(newAnnotation, resourceFactory, closer, recording);
 
 		Object result;
+		long start = System.nanoTime();
 		try {
 			result = resource.get();
 		}
@@ -116,6 +141,9 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 			// @formatter:on
 			throw new ParameterResolutionException(message, ex);
 		}
+		finally {
+			recording.recordRetrieval(System.nanoTime() - start);
+		}
 
 		if (result == null) {
 			// @formatter:off
@@ -129,28 +157,46 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 		return result;
 	}
 
-	private Object resolveShared(Shared sharedAnnotation, Parameter[] parameters, ExtensionContext.Store scopedStore,
-			ExtensionContext.Store rootStore) {
+	private Object resolveShared(Shared sharedAnnotation, ParameterContext parameterContext,
+			ExtensionContext extensionContext, ExtensionContext scopedContext, ResourceMetricsRecorder metrics) {
+		Executable executable = parameterContext.getDeclaringExecutable();
+		ContextResources scopedResources = resources(scopedContext);
+		ContextResources rootResources = resources(extensionContext.getRoot());
 		// run sequentially, so that resources with the same name are never created twice at the same time
 		SHARED_ANNOTATION_RESOLUTION_LOCK.lock();
 		try {
-			throwIfHasAnnotationWithSameNameButDifferentType(scopedStore, sharedAnnotation);
-			throwIfHasAnnotationWithSameNameButDifferentScope(rootStore, sharedAnnotation);
-			throwIfMultipleParametersHaveExactAnnotation(parameters, sharedAnnotation);
-
-			ResourceFactory<?> resourceFactory = scopedStore
-					.getOrComputeIfAbsent( //
-						factoryKey(sharedAnnotation), //
-						__ -> ReflectionSupport.newInstance(sharedAnnotation.factory()), //
-						ResourceFactory.class);
-			Resource<?> resource = scopedStore
-					.getOrComputeIfAbsent( //
-						resourceKey(sharedAnnotation), //
-						__ -> newResource(sharedAnnotation, resourceFactory), //
-						Resource.class);
-			putNewLockForShared(sharedAnnotation, scopedStore);
+			throwIfHasAnnotationWithSameNameButDifferentType(scopedResources, sharedAnnotation);
+			throwIfHasAnnotationWithSameNameButDifferentScope(rootResources, sharedAnnotation);
+			throwIfReferenceCountedButGlobal(sharedAnnotation);
+			throwIfMultipleParametersHaveExactAnnotation(ResourcePlan.of(executable), parameterContext.getIndex());
+
+			ResourceMetricsRecorder.Recording recording = metrics.recordingFor(sharedAnnotation.name());
+			SharedResource sharedResource = scopedResources.sharedResources.get(sharedAnnotation.name());
+			if (sharedResource == null) {
+				ResourceFactory<?> resourceFactory = ReflectionSupport.newInstance(sharedAnnotation.factory());
+				// the resource gets its own closer, so it can be closed before the scope ends; that closer is
+				// registered with the scope's closer right away, so the factory is closed even if creation fails
+				ResourceCloser resourceCloser = new ResourceCloser(1, Duration.ZERO);
+				scopedResources.closer.register(resourceCloser);
+				Resource<?> resource = newResource(sharedAnnotation, resourceFactory, resourceCloser, recording);
+				Set<Executable> declaringTests = sharedAnnotation.referenceCounted()
+						? declaringTests(sharedAnnotation, scopedContext)
+						: Collections.emptySet();
+				sharedResource = new SharedResource(resourceFactory, resource, resourceCloser, declaringTests,
+					scopedResources.skippedTests);
+				scopedResources.sharedResources.put(sharedAnnotation.name(), sharedResource);
+			} else {
+				recording.recordReuse();
+			}
+			Resource<?> resource = sharedResource.resource;
+			scopedResources.locks.computeIfAbsent(sharedAnnotation.name(), __ -> new ResourceLock());
+			if (sharedResource.isReferencedBy(executable)) {
+				releaseAfterTest(sharedAnnotation.name(), sharedResource, executable, extensionContext,
+					scopedResources);
+			}
 
 			Object result;
+			long start = System.nanoTime();
 			try {
 				result = resource.get();
 			}
@@ -162,6 +208,9 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 				// @formatter:on
 				throw new ParameterResolutionException(message, ex);
 			}
+			finally {
+				recording.recordRetrieval(System.nanoTime() - start);
+			}
 
 			if (result == null) {
 				// @formatter:off
@@ -179,7 +228,12 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 		}
 	}
 
-	private Resource<?> newResource(Object newOrSharedAnnotation, ResourceFactory<?> resourceFactory) {
+	/**
+	 * Creates a new resource with the given factory and registers both of them with the closer
+	 * (even if creating the resource fails, the factory needs to be closed).
+	 */
+	private Resource<?> newResource(Object newOrSharedAnnotation, ResourceFactory<?> resourceFactory,
+			ResourceCloser closer, ResourceMetricsRecorder.Recording recording) {
 		List<String> arguments;
 		if (newOrSharedAnnotation instanceof New) {
 			arguments = unmodifiableList(asList(((New) newOrSharedAnnotation).arguments()));
@@ -188,16 +242,22 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 		}
 
 		Resource<?> result;
+		long start = System.nanoTime();
 		try {
 			result = resourceFactory.create(arguments);
 		}
 		catch (Exception ex) {
+			closer.register(resourceFactory);
 			String message = //
 				String.format("Unable to create a resource from `%s`", resourceFactory.getClass().getTypeName());
 			throw new ParameterResolutionException(message, ex);
 		}
+		finally {
+			recording.recordCreation(System.nanoTime() - start);
+		}
 
 		if (result == null) {
+			closer.register(resourceFactory);
 			// @formatter:off
 			String message = String.format(
 					"The `Resource` instance returned by the factory method [%s] with arguments %s was null, which is not allowed",
@@ -207,42 +267,171 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 			throw new ParameterResolutionException(message);
 		}
 
+		// the resource needs to be closed before the factory that created it
+		closer.register(recording.recordingClose(result), resourceFactory);
 		return result;
 	}
 
-	private void throwIfHasAnnotationWithSameNameButDifferentType(ExtensionContext.Store scopedStore,
-			Shared sharedAnnotation) {
-		ResourceFactory<?> presentResourceFactory = //
-			scopedStore.getOrDefault(factoryKey(sharedAnnotation), ResourceFactory.class, null);
+	/**
+	 * Returns the tests in the scope that declare the given resource or an empty set if it is
+	 * also declared by something that isn't a test (e.g. a constructor or lifecycle method),
+	 * in which case it can't be closed before its scope ends.
+	 */
+	private Set<Executable> declaringTests(Shared sharedAnnotation, ExtensionContext scopedContext) {
+		AnnotatedElement scopedElement = scopedContext.getElement().orElse(null);
+		if (!(scopedElement instanceof Class))
+			return Collections.emptySet();
+
+		Set<Executable> declaringTests = new HashSet<>();
+		for (Class<?> testClass : classesInScope((Class<?>) scopedElement, sharedAnnotation.scope())) {
+			for (Executable executable : declaringExecutables(testClass, sharedAnnotation.name())) {
+				if (!AnnotationSupport.isAnnotated(executable, Testable.class))
+					return Collections.emptySet();
+				declaringTests.add(executable);
+			}
+		}
+		return declaringTests;
+	}
+
+	/**
+	 * Returns the constructors and methods of the given class that declare the shared resource with the given name.
+	 */
+	private List<Executable> declaringExecutables(Class<?> testClass, String name) {
+		List<Executable> executables = new ArrayList<>(asList(testClass.getDeclaredConstructors()));
+		executables.addAll(ReflectionSupport.findMethods(testClass, __ -> true, HierarchyTraversalMode.TOP_DOWN));
+		return executables
+				.stream()
+				.filter(executable -> ResourcePlan
+						.of(executable)
+						.sortedShared()
+						.stream()
+						.anyMatch(shared -> shared.name().equals(name)))
+				.collect(toList());
+	}
 
-		if (presentResourceFactory == null) {
-			scopedStore.put(keyOfFactoryKey(sharedAnnotation), factoryKey(sharedAnnotation));
-		} else {
-			String presentResourceFactoryName = //
-				scopedStore.getOrDefault(keyOfFactoryKey(sharedAnnotation), String.class, null);
+	private List<Class<?>> classesInScope(Class<?> testClass, Shared.Scope scope) {
+		List<Class<?>> classes = new ArrayList<>();
+		classes.add(testClass);
+		if (scope == Shared.Scope.SOURCE_FILE) {
+			ReflectionSupport
+					.findNestedClasses(testClass, nested -> AnnotationSupport.isAnnotated(nested, Nested.class))
+					.forEach(nested -> classes.addAll(classesInScope(nested, scope)));
+		}
+		return classes;
+	}
+
+	/**
+	 * Makes sure the reference counted resource is released when the given test finishes.
+	 */
+	private void releaseAfterTest(String name, SharedResource sharedResource, Executable test,
+			ExtensionContext extensionContext, ContextResources scopedResources) {
+		// test templates (e.g. parameterized tests) have a context for each invocation as well as
+		// one for all invocations - the latter is the one that ends when the test finishes
+		ExtensionContext testContext = extensionContext;
+		while (testContext.getParent().flatMap(ExtensionContext::getElement).filter(test::equals).isPresent()) {
+			testContext = testContext.getParent().get();
+		}
 
-			if (factoryKey(sharedAnnotation).equals(presentResourceFactoryName)
-					&& !sharedAnnotation.factory().equals(presentResourceFactory.getClass())) {
-				// @formatter:off
-				String message =
-						String.format(
-								"Two or more parameters are annotated with @Shared annotations with the name \"%s\" "
-										+ "but with different factory classes",
-								sharedAnnotation.name());
-				// @formatter:on
-				throw new ParameterResolutionException(message);
+		ContextResources testResources = resources(testContext);
+		if (testResources.referencedResources.add(name)) {
+			sharedResource.reference();
+			testResources.closer
+					.register(() -> release(name, sharedResource, scopedResources,
+						resource -> resource.release(test)));
+		}
+
+		// tests that never start (e.g. because they're filtered out) can't release the resource themselves,
+		// so once their class ends, they're treated like skipped tests - if the class isn't the scope anyway
+		ExtensionContext classContext = scopedContext(testContext, Shared.Scope.TEST_CLASS);
+		Optional<Class<?>> testClass = classContext.getTestClass();
+		ContextResources classResources = resources(classContext);
+		if (classResources != scopedResources && testClass.isPresent()
+				&& classResources.referencedResources.add(name)) {
+			List<Executable> classTests = declaringExecutables(testClass.get(), name);
+			classResources.closer
+					.register(() -> release(name, sharedResource, scopedResources,
+						resource -> resource.skip(classTests)));
+		}
+	}
+
+	@Override
+	public void testDisabled(ExtensionContext context, Optional<String> reason) {
+		// tests that are skipped (e.g. because they're disabled) never reference their resources,
+		// so they have to be released from the reference counted ones right away
+		Method test = context.getRequiredTestMethod();
+		for (Shared sharedAnnotation : ResourcePlan.of(test).sortedShared()) {
+			if (!sharedAnnotation.referenceCounted())
+				continue;
+			ContextResources scopedResources = resources(scopedContext(context, sharedAnnotation.scope()));
+			SHARED_ANNOTATION_RESOLUTION_LOCK.lock();
+			try {
+				// if the resource doesn't exist yet, it's created without the skipped test
+				scopedResources.skippedTests.add(test);
+			}
+			finally {
+				SHARED_ANNOTATION_RESOLUTION_LOCK.unlock();
+			}
+			SharedResource sharedResource = scopedResources.sharedResources.get(sharedAnnotation.name());
+			if (sharedResource != null) {
+				try {
+					release(sharedAnnotation.name(), sharedResource, scopedResources,
+						resource -> resource.skip(Collections.singleton(test)));
+				}
+				catch (Throwable throwable) {
+					throw new IllegalStateException(
+						String.format("Unable to close the shared resource \"%s\"", sharedAnnotation.name()),
+						throwable);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Releases the resource from the test(s) (with the given predicate, which returns whether that made it
+	 * unreferenced) and closes it if it is no longer referenced.
+	 */
+	private void release(String name, SharedResource sharedResource, ContextResources scopedResources,
+			Predicate<SharedResource> releasing) throws Throwable {
+		boolean unreferenced;
+		SHARED_ANNOTATION_RESOLUTION_LOCK.lock();
+		try {
+			unreferenced = releasing.test(sharedResource);
+			if (unreferenced) {
+				// if another test needs the resource after all, a new one is created
+				scopedResources.sharedResources.remove(name, sharedResource);
 			}
 		}
+		finally {
+			SHARED_ANNOTATION_RESOLUTION_LOCK.unlock();
+		}
+		if (unreferenced) {
+			sharedResource.closer.close();
+		}
 	}
 
-	private void throwIfHasAnnotationWithSameNameButDifferentScope(ExtensionContext.Store rootStore,
+	private void throwIfHasAnnotationWithSameNameButDifferentType(ContextResources scopedResources,
 			Shared sharedAnnotation) {
-		Shared presentSharedAnnotation = rootStore
-				.getOrDefault(sharedAnnotationKey(sharedAnnotation), Shared.class, null);
+		SharedResource presentSharedResource = scopedResources.sharedResources.get(sharedAnnotation.name());
 
-		if (presentSharedAnnotation == null) {
-			rootStore.put(sharedAnnotationKey(sharedAnnotation), sharedAnnotation);
-		} else {
+		if (presentSharedResource != null
+				&& !sharedAnnotation.factory().equals(presentSharedResource.factory.getClass())) {
+			// @formatter:off
+			String message =
+					String.format(
+							"Two or more parameters are annotated with @Shared annotations with the name \"%s\" "
+									+ "but with different factory classes",
+							sharedAnnotation.name());
+			// @formatter:on
+			throw new ParameterResolutionException(message);
+		}
+	}
+
+	private void throwIfHasAnnotationWithSameNameButDifferentScope(ContextResources rootResources,
+			Shared sharedAnnotation) {
+		Shared presentSharedAnnotation = //
+			rootResources.sharedAnnotations.putIfAbsent(sharedAnnotation.name(), sharedAnnotation);
+
+		if (presentSharedAnnotation != null) {
 			if (presentSharedAnnotation.name().equals(sharedAnnotation.name())
 					&& !presentSharedAnnotation.scope().equals(sharedAnnotation.scope())) {
 				// @formatter:off
@@ -254,12 +443,35 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 				// @formatter:on
 				throw new ParameterResolutionException(message);
 			}
+			if (presentSharedAnnotation.name().equals(sharedAnnotation.name())
+					&& presentSharedAnnotation.referenceCounted() != sharedAnnotation.referenceCounted()) {
+				// @formatter:off
+				String message =
+						String.format(
+								"Two or more parameters are annotated with @Shared annotations with the name " +
+										"\"%s\" but only some of them are reference counted",
+								sharedAnnotation.name());
+				// @formatter:on
+				throw new ParameterResolutionException(message);
+			}
+		}
+	}
+
+	private void throwIfReferenceCountedButGlobal(Shared sharedAnnotation) {
+		if (sharedAnnotation.referenceCounted() && sharedAnnotation.scope() == Shared.Scope.GLOBAL) {
+			// @formatter:off
+			String message =
+					String.format(
+							"The @Shared resource with the name \"%s\" is reference counted, "
+									+ "which is not supported for the global scope",
+							sharedAnnotation.name());
+			// @formatter:on
+			throw new ParameterResolutionException(message);
 		}
 	}
 
-	private void throwIfMultipleParametersHaveExactAnnotation(Parameter[] parameters, Shared sharedAnnotation) {
-		long parameterCount = //
-			Arrays.stream(parameters).filter(parameter -> hasAnnotation(parameter, sharedAnnotation)).count();
+	private void throwIfMultipleParametersHaveExactAnnotation(ResourcePlan plan, int parameterIndex) {
+		int parameterCount = plan.sameSharedCount(parameterIndex);
 		if (parameterCount > 1) {
 			// @formatter:off
 			String message =
@@ -272,36 +484,32 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 		}
 	}
 
-	private boolean hasAnnotation(Parameter parameter, Shared sharedAnnotation) {
-		return AnnotationSupport
-				.findAnnotation(parameter, Shared.class)
-				.filter(shared -> shared.factory().equals(sharedAnnotation.factory()))
-				.filter(shared -> shared.name().equals(sharedAnnotation.name()))
-				.isPresent();
-	}
-
-	private long uniqueKey() {
-		return KEY_GENERATOR.getAndIncrement();
-	}
-
-	private String factoryKey(Shared sharedAnnotation) {
-		return sharedAnnotation.name() + " resource factory";
-	}
-
-	private String resourceKey(Shared sharedAnnotation) {
-		return sharedAnnotation.name() + " resource";
-	}
-
-	private String resourceLockKey(Shared sharedAnnotation) {
-		return sharedAnnotation.name() + " resource lock";
+	private ResourceMetricsRecorder metrics(ExtensionContext extensionContext) {
+		return extensionContext
+				.getRoot()
+				.getStore(NAMESPACE)
+				.getOrComputeIfAbsent(ResourceMetricsRecorder.class, __ -> new ResourceMetricsRecorder(),
+					ResourceMetricsRecorder.class);
 	}
 
-	private String keyOfFactoryKey(Shared sharedAnnotation) {
-		return sharedAnnotation.name() + " resource factory key";
+	/**
+	 * Returns the resources that belong to the given context.
+	 */
+	private ContextResources resources(ExtensionContext extensionContext) {
+		return extensionContext
+				.getStore(NAMESPACE)
+				.getOrComputeIfAbsent(extensionContext, __ -> new ContextResources(newCloser(extensionContext)),
+					ContextResources.class);
 	}
 
-	private String sharedAnnotationKey(Shared sharedAnnotation) {
-		return sharedAnnotation.name() + " shared annotation";
+	private ResourceCloser newCloser(ExtensionContext extensionContext) {
+		int parallelism = extensionContext
+				.getConfigurationParameter(CLOSE_PARALLELISM_PARAMETER, Integer::parseInt)
+				.orElse(1);
+		long timeoutMillis = extensionContext
+				.getConfigurationParameter(CLOSE_TIMEOUT_PARAMETER, Long::parseLong)
+				.orElse(0L);
+		return new ResourceCloser(parallelism, Duration.ofMillis(timeoutMillis));
 	}
 
 	private String testMethodDescription(ExtensionContext extensionContext) {
@@ -397,23 +605,23 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 		//
 		// [1] https://en.wikipedia.org/wiki/Dining_philosophers_problem
 
-		List<Shared> sharedAnnotations = findShared(executable);
-		List<ReentrantLock> locks = sortedLocksForSharedResources(sharedAnnotations, extensionContext);
-		return invokeWithLocks(invocation, locks);
+		ResourcePlan plan = ResourcePlan.of(executable);
+		// most invocations don't use shared resources, so they shouldn't pay for locking
+		if (!plan.usesShared())
+			return invocation.proceed();
+
+		List<Shared> sortedAnnotations = plan.sortedShared();
+		List<ResourceLock> locks = locksForSharedResources(sortedAnnotations, extensionContext);
+		return invokeWithLocks(invocation, sortedAnnotations, locks, extensionContext);
 	}
 
-	private List<ReentrantLock> sortedLocksForSharedResources(Collection<Shared> sharedAnnotations,
+	private List<ResourceLock> locksForSharedResources(List<Shared> sortedAnnotations,
 			ExtensionContext extensionContext) {
-		List<Shared> sortedAnnotations = sharedAnnotations.stream().sorted(comparing(Shared::name)).collect(toList());
-		List<ExtensionContext.Store> stores = //
-			sortedAnnotations
-					.stream() //
-					.map(shared -> scopedStore(extensionContext, shared.scope()))
-					.collect(toList());
-		return IntStream
-				.range(0, sortedAnnotations.size()) //
-				.mapToObj(i -> findLockForShared(sortedAnnotations.get(i), stores.get(i)))
-				.collect(toList());
+		List<ResourceLock> locks = new ArrayList<>(sortedAnnotations.size());
+		for (Shared shared : sortedAnnotations) {
+			locks.add(findLockForShared(shared, scopedContext(extensionContext, shared.scope())));
+		}
+		return locks;
 	}
 
 	private Method testFactoryMethod(ExtensionContext extensionContext) {
@@ -424,12 +632,19 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 				.getRequiredTestMethod();
 	}
 
-	private ExtensionContext.Store scopedStore(ExtensionContext extensionContext, Shared.Scope scope) {
-		ExtensionContext scopedContext = scopedContext(extensionContext, scope);
-		return scopedContext.getStore(NAMESPACE);
-	}
-
 	private ExtensionContext scopedContext(ExtensionContext extensionContext, Shared.Scope scope) {
+		if (scope == Shared.Scope.TEST_CLASS) {
+			// search for the closest context that belongs to a class,
+			// which is the test class itself or a nested test class
+			ExtensionContext currentContext = extensionContext;
+			while (!currentContext.getElement().filter(Class.class::isInstance).isPresent()
+					&& currentContext.getParent().isPresent()) {
+				currentContext = currentContext.getParent().get();
+			}
+
+			return currentContext;
+		}
+
 		if (scope == Shared.Scope.SOURCE_FILE) {
 			// search for the test scope that's associated with the same source file,
 			// which we assume is the one that has the root context as parent
@@ -449,22 +664,11 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 		return extensionContext.getRoot();
 	}
 
-	private List<Shared> findShared(Executable executable) {
-		return Arrays
-				.stream(executable.getParameters())
-				.map(parameter -> AnnotationSupport.findAnnotation(parameter, Shared.class))
-				.filter(Optional::isPresent)
-				.map(Optional::get)
-				.collect(toList());
-	}
-
-	private void putNewLockForShared(Shared shared, ExtensionContext.Store store) {
-		store.getOrComputeIfAbsent(resourceLockKey(shared), __ -> new ReentrantLock(), ReentrantLock.class);
-	}
-
-	private ReentrantLock findLockForShared(Shared shared, ExtensionContext.Store store) {
+	private ResourceLock findLockForShared(Shared shared, ExtensionContext scopedContext) {
+		ContextResources scopedResources = scopedContext.getStore(NAMESPACE).get(scopedContext, ContextResources.class);
 		// @formatter:off
-		return Optional.ofNullable(store.get(resourceLockKey(shared), ReentrantLock.class))
+		return Optional.ofNullable(scopedResources)
+				.map(resources -> resources.locks.get(shared.name()))
 				.orElseThrow(() -> {
 					String message = String.format("There should be a shared resource for the name %s", shared.name());
 					return new IllegalStateException(message);
@@ -472,16 +676,136 @@ class ResourceExtension implements ParameterResolver, InvocationInterceptor {
 		// @formatter:on
 	}
 
-	private <T> T invokeWithLocks(Invocation<T> invocation, List<ReentrantLock> locks) throws Throwable {
-		locks.forEach(ReentrantLock::lock);
+	private <T> T invokeWithLocks(Invocation<T> invocation, List<Shared> sortedAnnotations,
+			List<ResourceLock> locks, ExtensionContext extensionContext) throws Throwable {
+		long totalWait = 0;
+		ResourceMetricsRecorder metrics = metrics(extensionContext);
+		for (int i = 0; i < locks.size(); i++) {
+			totalWait += locks.get(i).acquire(metrics.recordingFor(sortedAnnotations.get(i).name()));
+		}
+		reportLockWait(sortedAnnotations, totalWait, extensionContext);
 		try {
 			return invocation.proceed();
 		}
 		finally {
 			// for dining philosophers, "[t]he order in which each philosopher puts down the forks does not matter"
 			// (quote from Wikipedia)
-			locks.forEach(ReentrantLock::unlock);
+			locks.forEach(ResourceLock::release);
+		}
+	}
+
+	private void reportLockWait(List<Shared> sortedAnnotations, long totalWait, ExtensionContext extensionContext) {
+		boolean report = extensionContext
+				.getConfigurationParameter(REPORT_LOCK_WAIT_PARAMETER, Boolean::parseBoolean)
+				.orElse(false);
+		if (!report)
+			return;
+
+		List<String> names = sortedAnnotations.stream().map(Shared::name).collect(toList());
+		// @formatter:off
+		String message = String.format(
+				"Waited [%d] ms for the shared resources %s",
+				TimeUnit.NANOSECONDS.toMillis(totalWait), names);
+		// @formatter:on
+		extensionContext.publishReportEntry(REPORT_ENTRY_KEY, message);
+	}
+
+	/**
+	 * The resources (and the locks of shared resources) that belong to one extension context.
+	 *
+	 * <p>It is stored in the context's store with the context itself as key. Unlike a string key,
+	 * that doesn't need to be built for every lookup and it never finds the resources of a parent
+	 * context (which {@code Store::get} falls back to), e.g. those of an outer class when looking for
+	 * the {@link Shared.Scope#TEST_CLASS TEST_CLASS} resources of a nested class.</p>
+	 */
+	private static final class ContextResources implements ExtensionContext.Store.CloseableResource {
+
+		private final ResourceCloser closer;
+		private final ConcurrentMap<String, SharedResource> sharedResources = new ConcurrentHashMap<>();
+		private final ConcurrentMap<String, ResourceLock> locks = new ConcurrentHashMap<>();
+		// only used in the root context to check that all declarations of a shared resource match
+		private final ConcurrentMap<String, Shared> sharedAnnotations = new ConcurrentHashMap<>();
+		// the names of the reference counted shared resources that a test (or, to release them from
+		// the class's tests that never started, a test in a class) references
+		private final Set<String> referencedResources = ConcurrentHashMap.newKeySet();
+		// the tests in a scope that were skipped, so they don't keep reference counted resources open
+		private final Set<Executable> skippedTests = ConcurrentHashMap.newKeySet();
+
+		ContextResources(ResourceCloser closer) {
+			this.closer = closer;
+		}
+
+		@Override
+		public void close() throws Throwable {
+			closer.close();
 		}
+
+	}
+
+	/**
+	 * A shared resource and the factory that created it. Since this class doesn't implement
+	 * {@link ExtensionContext.Store.CloseableResource CloseableResource}, JUnit doesn't close it
+	 * when the store is closed - that's the {@link ResourceCloser}'s job.
+	 *
+	 * <p>If the resource is reference counted, it also keeps track of which of the tests that
+	 * declare it are yet to finish (or to be skipped). All access to that state must hold the
+	 * {@link #SHARED_ANNOTATION_RESOLUTION_LOCK}.</p>
+	 */
+	private static final class SharedResource {
+
+		private final ResourceFactory<?> factory;
+		private final Resource<?> resource;
+		private final ResourceCloser closer;
+		// empty if the resource isn't reference counted
+		private final Set<Executable> declaringTests;
+		private final Set<Executable> unfinishedTests;
+		private int runningTests;
+		private boolean unreferenced;
+
+		SharedResource(ResourceFactory<?> factory, Resource<?> resource, ResourceCloser closer,
+				Set<Executable> declaringTests, Set<Executable> skippedTests) {
+			this.factory = factory;
+			this.resource = resource;
+			this.closer = closer;
+			this.declaringTests = declaringTests;
+			this.unfinishedTests = new HashSet<>(declaringTests);
+			this.unfinishedTests.removeAll(skippedTests);
+		}
+
+		boolean isReferencedBy(Executable executable) {
+			return declaringTests.contains(executable);
+		}
+
+		void reference() {
+			runningTests++;
+		}
+
+		/**
+		 * Returns whether the resource is no longer referenced (and wasn't before), i.e. whether all tests
+		 * that declare it finished or were skipped.
+		 */
+		boolean release(Executable test) {
+			runningTests--;
+			unfinishedTests.remove(test);
+			return becameUnreferenced();
+		}
+
+		/**
+		 * Like {@link #release(Executable)}, but for tests that never referenced the resource.
+		 */
+		boolean skip(Collection<Executable> tests) {
+			// tests that already started keep the resource referenced until they finish
+			unfinishedTests.removeAll(tests);
+			return becameUnreferenced();
+		}
+
+		private boolean becameUnreferenced() {
+			if (unreferenced || runningTests > 0 || !unfinishedTests.isEmpty())
+				return false;
+			unreferenced = true;
+			return true;
+		}
+
 	}
 
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The lock that gives tests, test class constructors, and lifecycle methods exclusive access to
+ * a shared resource.
+ *
+ * <p>The lock is fair: invocations get access in the order in which they asked for it, so none of
+ * them starve, even if thousands of them contend for the same few resources. Waiting threads are
+ * parked instead of blocked on a monitor, which (on JDKs that have them) lets virtual threads
+ * unmount from their carrier thread while they wait.</p>
+ */
+final class ResourceLock {
+
+	private final ReentrantLock lock = new ReentrantLock(true);
+
+	/**
+	 * Acquires the lock and returns how long that took in nanoseconds.
+	 */
+	long acquire(ResourceMetricsRecorder.Recording recording) {
+		long start = System.nanoTime();
+		// if the lock is held by another invocation, this one has to wait - as do all that are already queued;
+		// `tryLock` isn't used as a fast path because it would let this invocation barge ahead of them
+		int waiters = lock.isLocked() && !lock.isHeldByCurrentThread() ? lock.getQueueLength() + 1 : 0;
+		lock.lock();
+		long wait = System.nanoTime() - start;
+		recording.recordLockWait(wait, waiters);
+		return wait;
+	}
+
+	void release() {
+		lock.unlock();
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import java.time.Duration;
+
+/**
+ * {@code ResourceMetrics} are the statistics the resources extension collected for a single resource
+ * over the course of a test run.
+ *
+ * <p>Shared resources are identified by their {@link Shared#name() name}, new resources by the
+ * fully qualified name of their {@link New#value() factory}.</p>
+ *
+ * <p>It is part of the "resources" JUnit Jupiter extension, which pertains to anything that needs
+ * to be injected into tests and which may need to be started up or torn down. Temporary
+ * directories are a common example.
+ *
+ * <p>This class is intended for <i>implementors</i> of {@link ResourceMetricsListener}.</p>
+ *
+ * @since 1.9.0
+ * @see ResourceMetricsListener
+ */
+public final class ResourceMetrics {
+
+	private final String name;
+	private final long reused;
+	private final Timing creation;
+	private final Timing retrieval;
+	private final Timing closing;
+	private final Timing lockWait;
+	private final int peakLockWaiters;
+
+	ResourceMetrics(String name, long reused, Timing creation, Timing retrieval, Timing closing, Timing lockWait,
+			int peakLockWaiters) {
+		this.name = name;
+		this.reused = reused;
+		this.creation = creation;
+		this.retrieval = retrieval;
+		this.closing = closing;
+		this.lockWait = lockWait;
+		this.peakLockWaiters = peakLockWaiters;
+	}
+
+	/**
+	 * Returns the name of the resource.
+	 */
+	public String name() {
+		return name;
+	}
+
+	/**
+	 * Returns how often the resource was created, i.e. how often
+	 * {@link ResourceFactory#create(java.util.List) ResourceFactory::create} was called.
+	 */
+	public long created() {
+		return creation.count();
+	}
+
+	/**
+	 * Returns how often an existing shared resource was injected instead of creating a new one.
+	 */
+	public long reused() {
+		return reused;
+	}
+
+	/**
+	 * Returns how often the resource was closed, i.e. how often {@link Resource#close() Resource::close}
+	 * was called.
+	 */
+	public long closed() {
+		return closing.count();
+	}
+
+	/**
+	 * Returns the time spent in {@link ResourceFactory#create(java.util.List) ResourceFactory::create}.
+	 */
+	public Timing creation() {
+		return creation;
+	}
+
+	/**
+	 * Returns the time spent in {@link Resource#get() Resource::get}.
+	 */
+	public Timing retrieval() {
+		return retrieval;
+	}
+
+	/**
+	 * Returns the time spent in {@link Resource#close() Resource::close}.
+	 */
+	public Timing closing() {
+		return closing;
+	}
+
+	/**
+	 * Returns the time tests, test constructors, and lifecycle methods spent waiting for exclusive
+	 * access to this shared resource. Always empty for new resources.
+	 */
+	public Timing lockWait() {
+		return lockWait;
+	}
+
+	/**
+	 * Returns the highest number of tests, test constructors, and lifecycle methods that were
+	 * waiting for exclusive access to this shared resource at the same time.
+	 * Always zero for new resources.
+	 */
+	public int peakLockWaiters() {
+		return peakLockWaiters;
+	}
+
+	@Override
+	public String toString() {
+		return "ResourceMetrics{" + "name='" + name + '\'' + ", created=" + created() + ", reused=" + reused
+				+ ", closed=" + closed() + ", creation=" + creation + ", retrieval=" + retrieval + ", closing="
+				+ closing + ", lockWait=" + lockWait + ", peakLockWaiters=" + peakLockWaiters + '}';
+	}
+
+	/**
+	 * {@code Timing} summarizes how often and how long something took.
+	 *
+	 * @since 1.9.0
+	 * @see ResourceMetrics
+	 */
+	public static final class Timing {
+
+		private final long count;
+		private final Duration total;
+		private final Duration max;
+
+		Timing(long count, Duration total, Duration max) {
+			this.count = count;
+			this.total = total;
+			this.max = max;
+		}
+
+		/**
+		 * Returns the number of measurements.
+		 */
+		public long count() {
+			return count;
+		}
+
+		/**
+		 * Returns the sum of all measurements.
+		 */
+		public Duration total() {
+			return total;
+		}
+
+		/**
+		 * Returns the longest measurement.
+		 */
+		public Duration max() {
+			return max;
+		}
+
+		/**
+		 * Returns the average measurement or {@link Duration#ZERO} if there were none.
+		 */
+		public Duration mean() {
+			return count == 0 ? Duration.ZERO : total.dividedBy(count);
+		}
+
+		@Override
+		public String toString() {
+			return "Timing{" + "count=" + count + ", total=" + total + ", max=" + max + '}';
+		}
+
+	}
+
+}
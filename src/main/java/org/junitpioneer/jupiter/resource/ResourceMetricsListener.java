@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import java.util.List;
+
+/**
+ * {@code ResourceMetricsListener} is notified of the {@link ResourceMetrics} that were collected for
+ * all resources once all tests finished and all resources were closed.
+ *
+ * <p>Implementations are discovered with the {@link java.util.ServiceLoader}, so they need to be
+ * registered as a service provider and must have a parameterless constructor.</p>
+ *
+ * <p>It is part of the "resources" JUnit Jupiter extension, which pertains to anything that needs
+ * to be injected into tests and which may need to be started up or torn down. Temporary
+ * directories are a common example.
+ *
+ * <p>This class is intended for <i>implementors</i> that want to monitor resources.</p>
+ *
+ * <p>For more details and examples, see
+ * <a href="https://junit-pioneer.org/docs/resources/" target="_top">the documentation on resources</a>.</p>
+ *
+ * @since 1.9.0
+ * @see ResourceMetrics
+ */
+public interface ResourceMetricsListener {
+
+	/**
+	 * Processes the metrics of all resources that were used during the test run.
+	 *
+	 * @param metrics the metrics of all resources, sorted by their name
+	 */
+	void metricsCollected(List<ResourceMetrics> metrics);
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Collects {@link ResourceMetrics} during a test run and hands them to all registered
+ * {@link ResourceMetricsListener}s when closed.
+ *
+ * <p>An instance is meant to live in the root context's store, so that it is closed after all
+ * resources (which are stored in the same or in child contexts) were closed.</p>
+ */
+class ResourceMetricsRecorder implements ExtensionContext.Store.CloseableResource {
+
+	private final ConcurrentMap<String, Recording> recordings = new ConcurrentHashMap<>();
+
+	Recording recordingFor(String resourceName) {
+		return recordings.computeIfAbsent(resourceName, Recording::new);
+	}
+
+	@Override
+	public void close() {
+		// @formatter:off
+		List<ResourceMetrics> metrics = recordings
+				.values().stream()
+				.map(Recording::toMetrics)
+				.sorted(comparing(ResourceMetrics::name))
+				.collect(toList());
+		// @formatter:on
+		for (ResourceMetricsListener listener : ServiceLoader.load(ResourceMetricsListener.class)) {
+			listener.metricsCollected(unmodifiableList(metrics));
+		}
+	}
+
+	/**
+	 * The mutable, thread-safe counterpart to {@link ResourceMetrics}.
+	 */
+	static final class Recording {
+
+		private final String name;
+		private final LongAdder reused = new LongAdder();
+		private final TimingRecording creation = new TimingRecording();
+		private final TimingRecording retrieval = new TimingRecording();
+		private final TimingRecording closing = new TimingRecording();
+		private final TimingRecording lockWait = new TimingRecording();
+		private final AtomicInteger peakLockWaiters = new AtomicInteger();
+
+		private Recording(String name) {
+			this.name = name;
+		}
+
+		void recordCreation(long nanos) {
+			creation.record(nanos);
+		}
+
+		void recordReuse() {
+			reused.increment();
+		}
+
+		void recordRetrieval(long nanos) {
+			retrieval.record(nanos);
+		}
+
+		void recordClosing(long nanos) {
+			closing.record(nanos);
+		}
+
+		void recordLockWait(long nanos, int waiters) {
+			lockWait.record(nanos);
+			peakLockWaiters.accumulateAndGet(waiters, Math::max);
+		}
+
+		/**
+		 * Wraps the given resource, so that closing it is recorded.
+		 */
+		<T> Resource<T> recordingClose(Resource<T> resource) {
+			return new RecordingResource<>(resource, this);
+		}
+
+		ResourceMetrics toMetrics() {
+			return new ResourceMetrics(name, reused.sum(), creation.toTiming(), retrieval.toTiming(),
+				closing.toTiming(), lockWait.toTiming(), peakLockWaiters.get());
+		}
+
+	}
+
+	private static final class TimingRecording {
+
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		void record(long nanos) {
+			count.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+
+		ResourceMetrics.Timing toTiming() {
+			return new ResourceMetrics.Timing(count.sum(), Duration.ofNanos(totalNanos.sum()),
+				Duration.ofNanos(maxNanos.get()));
+		}
+
+	}
+
+	/**
+	 * A resource that records how long its delegate takes to close.
+	 */
+	private static final class RecordingResource<T> implements Resource<T> {
+
+		private final Resource<T> delegate;
+		private final Recording recording;
+
+		private RecordingResource(Resource<T> delegate, Recording recording) {
+			this.delegate = delegate;
+			this.recording = recording;
+		}
+
+		@Override
+		public T get() throws Exception {
+			return delegate.get();
+		}
+
+		@Override
+		public void close() throws Exception {
+			long start = System.nanoTime();
+			try {
+				delegate.close();
+			}
+			finally {
+				recording.recordClosing(System.nanoTime() - start);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return delegate.toString();
+		}
+
+	}
+
+}
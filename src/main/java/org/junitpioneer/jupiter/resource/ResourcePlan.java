@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.platform.commons.support.AnnotationSupport;
+
+/**
+ * The shared resources an executable (a test method, test class constructor, lifecycle method, etc.)
+ * declares.
+ *
+ * <p>Finding them requires reflection, but the resources extension needs them for every invocation
+ * of the executable and every parameter it resolves, so plans are computed once per executable and
+ * cached. The cache is a {@link ClassValue}, so it doesn't keep test classes from being unloaded.</p>
+ */
+final class ResourcePlan {
+
+	private static final ClassValue<ConcurrentMap<Executable, ResourcePlan>> PLANS = //
+		new ClassValue<ConcurrentMap<Executable, ResourcePlan>>() {
+
+			@Override
+			protected ConcurrentMap<Executable, ResourcePlan> computeValue(Class<?> type) {
+				return new ConcurrentHashMap<>();
+			}
+
+		};
+
+	// sorted by name, which is the order in which their locks need to be acquired
+	private final List<Shared> sortedShared;
+	// for each parameter, the number of parameters that are annotated with
+	// `@Shared` with the same factory and name (0 if it isn't annotated at all)
+	private final int[] sameSharedCounts;
+
+	private ResourcePlan(Executable executable) {
+		Parameter[] parameters = executable.getParameters();
+		List<Optional<Shared>> shared = Arrays
+				.stream(parameters)
+				.map(parameter -> AnnotationSupport.findAnnotation(parameter, Shared.class))
+				.collect(toList());
+		this.sortedShared = unmodifiableList(shared
+				.stream()
+				.filter(Optional::isPresent)
+				.map(Optional::get)
+				.sorted(comparing(Shared::name))
+				.collect(toList()));
+		this.sameSharedCounts = shared
+				.stream()
+				.mapToInt(annotation -> annotation.map(this::countSameShared).orElse(0))
+				.toArray();
+	}
+
+	static ResourcePlan of(Executable executable) {
+		ConcurrentMap<Executable, ResourcePlan> plans = PLANS.get(executable.getDeclaringClass());
+		// on Java 8, `computeIfAbsent` locks even if the plan is present, so look it up first
+		ResourcePlan plan = plans.get(executable);
+		return plan != null ? plan : plans.computeIfAbsent(executable, ResourcePlan::new);
+	}
+
+	private int countSameShared(Shared sharedAnnotation) {
+		return (int) sortedShared
+				.stream()
+				.filter(shared -> shared.factory().equals(sharedAnnotation.factory()))
+				.filter(shared -> shared.name().equals(sharedAnnotation.name()))
+				.count();
+	}
+
+	/**
+	 * Returns whether any of the executable's parameters is annotated with {@link Shared @Shared}.
+	 */
+	boolean usesShared() {
+		return !sortedShared.isEmpty();
+	}
+
+	/**
+	 * Returns the {@link Shared @Shared} annotations of the executable's parameters, sorted by name.
+	 */
+	List<Shared> sortedShared() {
+		return sortedShared;
+	}
+
+	/**
+	 * Returns the number of the executable's parameters that are annotated with {@link Shared @Shared}
+	 * with the same factory and name as the parameter with the given index.
+	 */
+	int sameSharedCount(int parameterIndex) {
+		return sameSharedCounts[parameterIndex];
+	}
+
+}
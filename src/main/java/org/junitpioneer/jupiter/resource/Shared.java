@@ -56,10 +56,25 @@ public @interface Shared {
 	 * <p>The default scope is {@link Shared.Scope#SOURCE_FILE}.</p>
 	 *
 	 * @see Shared.Scope#SOURCE_FILE
+	 * @see Shared.Scope#TEST_CLASS
 	 * @see Shared.Scope#GLOBAL
 	 */
 	Scope scope() default Scope.SOURCE_FILE;
 
+	/**
+	 * Whether the resource is closed as soon as all tests that declare it finished instead of
+	 * when its {@link #scope() scope} ends.
+	 *
+	 * <p>Only tests in the scope's test class (and, for {@link Scope#SOURCE_FILE SOURCE_FILE},
+	 * its {@code @Nested} classes) are counted. If a test class constructor or a lifecycle method
+	 * declares the resource, it lives until the end of its scope regardless. Since it's not known
+	 * which tests a {@link Scope#GLOBAL GLOBAL} resource will be used by, reference counting is
+	 * not supported for that scope.</p>
+	 *
+	 * <p>The default is {@code false}.</p>
+	 */
+	boolean referenceCounted() default false;
+
 	/**
 	 * {@code Scope} specifies how long a shared resource lives.
 	 *
@@ -78,14 +93,21 @@ public @interface Shared {
 	enum Scope {
 
 		/**
-		 * <p>At this scope, a shared resource will last as long as the entire test suite.</p>
+		 * <p>At this scope, a shared resource will last as long as the entire test suite
+		 * (or, if the tests are forked into several JVMs, as long as the part of it that runs in the same JVM).</p>
 		 */
 		GLOBAL,
 
 		/**
 		 * <p>At this scope, a shared resource will last as long as the test file it is defined in.</p>
 		 */
-		SOURCE_FILE
+		SOURCE_FILE,
+
+		/**
+		 * <p>At this scope, a shared resource will last as long as the test class it is defined in.
+		 * Unlike with {@link #SOURCE_FILE}, each {@code @Nested} class gets its own resource.</p>
+		 */
+		TEST_CLASS
 
 	}
 
@@ -24,7 +24,11 @@ import java.util.List;
  *
  * <p>When used with the {@code @New} annotation and the annotation's {@code arguments} field is
  * populated, the first argument will be used as the <i>prefix</i> of the name of the temporary
- * directory.</p>
+ * directory. If a second argument is given, it names a <i>template</i> directory whose contents
+ * are copied into the new temporary directory before it is handed to the test. The template is
+ * either a path on the file system or, if prefixed with {@code classpath:}, a directory on the
+ * classpath (e.g. {@code "classpath:fixtures/tree"}). Templates are scanned once and only
+ * rescanned if their directories change.</p>
  *
  * <p>It is part of the "resources" JUnit Jupiter extension, which pertains to anything that needs
  * to be injected into tests and which may need to be started up or torn down. Temporary
@@ -45,12 +49,26 @@ public final class TemporaryDirectory implements ResourceFactory<Path> {
 
 	@Override
 	public Resource<Path> create(List<String> arguments) throws Exception {
-		if (arguments.size() >= 2) {
-			throw new IllegalArgumentException("Expected 0 or 1 arguments, but got " + arguments.size());
+		if (arguments.size() >= 3) {
+			throw new IllegalArgumentException("Expected 0, 1 or 2 arguments, but got " + arguments.size());
 		}
-		String directoryPrefix = (arguments.size() == 1) ? arguments.get(0) : "";
+		String directoryPrefix = (arguments.size() >= 1) ? arguments.get(0) : "";
 		requireNonNull(directoryPrefix, "Argument 0 can't be null");
-		return new TemporaryDirectoryResource(Files.createTempDirectory(directoryPrefix));
+		if (arguments.size() < 2) {
+			return new TemporaryDirectoryResource(Files.createTempDirectory(directoryPrefix));
+		}
+
+		String templateLocation = requireNonNull(arguments.get(1), "Argument 1 can't be null");
+		DirectoryTemplate template = DirectoryTemplate.of(templateLocation);
+		Path tempDir = Files.createTempDirectory(directoryPrefix);
+		try {
+			template.copyTo(tempDir);
+		}
+		catch (IOException ex) {
+			TemporaryDirectoryResource.deleteRecursively(tempDir);
+			throw ex;
+		}
+		return new TemporaryDirectoryResource(tempDir);
 	}
 
 	private static final class TemporaryDirectoryResource implements Resource<Path> {
@@ -14,6 +14,9 @@ module org.junitpioneer {
 	requires org.junit.jupiter.api;
 	requires org.junit.jupiter.params;
 	requires org.junit.platform.launcher;
+	// for `@Stopwatch`'s resource measurements - allocations are only measured if the JDK has `jdk.management`
+	requires java.management;
+	requires static jdk.management;
 
 	requires static com.fasterxml.jackson.core;
 	requires static com.fasterxml.jackson.databind;
@@ -23,6 +26,7 @@ module org.junitpioneer {
 	exports org.junitpioneer.jupiter.cartesian;
 	exports org.junitpioneer.jupiter.params;
 	exports org.junitpioneer.jupiter.json;
+	exports org.junitpioneer.jupiter.resource;
 
 	opens org.junitpioneer.vintage to org.junit.platform.commons;
 	opens org.junitpioneer.jupiter to org.junit.platform.commons;
@@ -35,4 +39,5 @@ module org.junitpioneer {
 	provides org.junit.platform.launcher.TestExecutionListener
 			with org.junitpioneer.jupiter.issue.IssueExtensionExecutionListener;
 	uses org.junitpioneer.jupiter.IssueProcessor;
+	uses org.junitpioneer.jupiter.resource.ResourceMetricsListener;
 }
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junitpioneer.testkit.PioneerTestKit.executeTestClass;
+import static org.junitpioneer.testkit.PioneerTestKit.executeTestClasses;
+import static org.junitpioneer.testkit.assertion.PioneerAssert.assertThat;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+import org.junitpioneer.testkit.ExecutionResults;
+
+@DisplayName("Abstract entry-based extension's plan cache")
+class AbstractEntryBasedExtensionPlanCacheTests {
+
+	@Test
+	@DisplayName("parses repeated annotations on a class once for all tests and executions")
+	void parsesRepeatedAnnotationsOnce() {
+		ExecutionResults firstResults = executeTestClass(RepeatedAnnotationsTestCases.class);
+		ExecutionResults secondResults = executeTestClass(RepeatedAnnotationsTestCases.class);
+
+		assertThat(firstResults).hasNumberOfSucceededTests(3);
+		assertThat(secondResults).hasNumberOfSucceededTests(3);
+		assertThat(EntryExtension.parsed("repeated.first")).isEqualTo(1);
+		assertThat(EntryExtension.parsed("repeated.second")).isEqualTo(1);
+		assertThat(EntryExtension.ENTRIES).doesNotContainKeys("repeated.first", "repeated.second");
+	}
+
+	@Test
+	@DisplayName("parses the annotations of a nested class and its enclosing class once each")
+	void parsesNestedAnnotationsOnce() {
+		ExecutionResults results = executeTestClass(NestedAnnotationsTestCases.class);
+
+		assertThat(results).hasNumberOfSucceededTests(3);
+		assertThat(EntryExtension.parsed("nested.outer")).isEqualTo(1);
+		assertThat(EntryExtension.parsed("nested.inner")).isEqualTo(1);
+		assertThat(EntryExtension.ENTRIES).doesNotContainKeys("nested.outer", "nested.inner");
+	}
+
+	@Test
+	@DisplayName("parses inherited annotations once per class and those of inherited methods once")
+	void parsesInheritedAnnotationsOnce() {
+		ExecutionResults results = executeTestClasses(
+			Arrays.asList(FirstInheritingTestCases.class, SecondInheritingTestCases.class));
+
+		assertThat(results).hasNumberOfSucceededTests(4);
+		// the class-level annotation is found on each subclass, which are planned separately...
+		assertThat(EntryExtension.parsed("inherited.class")).isEqualTo(2);
+		// ... but the plan of the inherited method is shared
+		assertThat(EntryExtension.parsed("inherited.method")).isEqualTo(1);
+		assertThat(EntryExtension.ENTRIES).doesNotContainKeys("inherited.class", "inherited.method");
+	}
+
+	@Test
+	@DisplayName("applies cached method-level annotations after cached class-level ones")
+	void appliesMethodAnnotationsAfterClassAnnotations() {
+		ExecutionResults firstResults = executeTestClass(OverridingAnnotationsTestCases.class);
+		ExecutionResults secondResults = executeTestClass(OverridingAnnotationsTestCases.class);
+
+		assertThat(firstResults).hasNumberOfSucceededTests(3);
+		assertThat(secondResults).hasNumberOfSucceededTests(3);
+		// the class-level annotation and each of the two annotated methods
+		assertThat(EntryExtension.parsed("overridden")).isEqualTo(3);
+		assertThat(EntryExtension.ENTRIES).doesNotContainKey("overridden");
+	}
+
+	@SetEntry(key = "repeated.first", value = "first")
+	@SetEntry(key = "repeated.second", value = "second")
+	static class RepeatedAnnotationsTestCases {
+
+		@Test
+		void firstTest() {
+			assertEntries();
+		}
+
+		@Test
+		void secondTest() {
+			assertEntries();
+		}
+
+		@Test
+		void thirdTest() {
+			assertEntries();
+		}
+
+		private void assertEntries() {
+			assertThat(EntryExtension.ENTRIES)
+					.containsEntry("repeated.first", "first")
+					.containsEntry("repeated.second", "second");
+		}
+
+	}
+
+	@SetEntry(key = "nested.outer", value = "outer")
+	static class NestedAnnotationsTestCases {
+
+		@Test
+		void outerTest() {
+			assertThat(EntryExtension.ENTRIES).containsEntry("nested.outer", "outer").doesNotContainKey("nested.inner");
+		}
+
+		@Nested
+		@SetEntry(key = "nested.inner", value = "inner")
+		class InnerTestCases {
+
+			@Test
+			void firstInnerTest() {
+				assertThat(EntryExtension.ENTRIES)
+						.containsEntry("nested.outer", "outer")
+						.containsEntry("nested.inner", "inner");
+			}
+
+			@Test
+			void secondInnerTest() {
+				assertThat(EntryExtension.ENTRIES)
+						.containsEntry("nested.outer", "outer")
+						.containsEntry("nested.inner", "inner");
+			}
+
+		}
+
+	}
+
+	@SetEntry(key = "inherited.class", value = "class")
+	abstract static class InheritedTestCases {
+
+		@Test
+		void classTest() {
+			assertThat(EntryExtension.ENTRIES)
+					.containsEntry("inherited.class", "class")
+					.doesNotContainKey("inherited.method");
+		}
+
+		@Test
+		@SetEntry(key = "inherited.method", value = "method")
+		void methodTest() {
+			assertThat(EntryExtension.ENTRIES)
+					.containsEntry("inherited.class", "class")
+					.containsEntry("inherited.method", "method");
+		}
+
+	}
+
+	static class FirstInheritingTestCases extends InheritedTestCases {
+	}
+
+	static class SecondInheritingTestCases extends InheritedTestCases {
+	}
+
+	@SetEntry(key = "overridden", value = "class")
+	static class OverridingAnnotationsTestCases {
+
+		@Test
+		void classTest() {
+			assertThat(EntryExtension.ENTRIES).containsEntry("overridden", "class");
+		}
+
+		@Test
+		@SetEntry(key = "overridden", value = "method")
+		void setTest() {
+			assertThat(EntryExtension.ENTRIES).containsEntry("overridden", "method");
+		}
+
+		@Test
+		@ClearEntry("overridden")
+		void clearTest() {
+			assertThat(EntryExtension.ENTRIES).doesNotContainKey("overridden");
+		}
+
+	}
+
+	/**
+	 * Keeps entries in a map and counts how often the key of each annotation was parsed,
+	 * i.e. how many plans were created for annotations with that key.
+	 */
+	static class EntryExtension extends AbstractEntryBasedExtension<String, String, ClearEntry, SetEntry> {
+
+		static final Map<String, String> ENTRIES = new ConcurrentHashMap<>();
+		private static final Map<String, AtomicInteger> PARSED_KEYS = new ConcurrentHashMap<>();
+
+		static int parsed(String key) {
+			return PARSED_KEYS.getOrDefault(key, new AtomicInteger()).get();
+		}
+
+		private static String parse(String key) {
+			PARSED_KEYS.computeIfAbsent(key, __ -> new AtomicInteger()).incrementAndGet();
+			return key;
+		}
+
+		@Override
+		protected Function<ClearEntry, String> clearKeyMapper() {
+			return clearEntry -> parse(clearEntry.value());
+		}
+
+		@Override
+		protected Function<SetEntry, String> setKeyMapper() {
+			return setEntry -> parse(setEntry.key());
+		}
+
+		@Override
+		protected Function<SetEntry, String> setValueMapper() {
+			return SetEntry::value;
+		}
+
+		@Override
+		protected void clearEntry(String key) {
+			ENTRIES.remove(key);
+		}
+
+		@Override
+		protected String getEntry(String key) {
+			return ENTRIES.get(key);
+		}
+
+		@Override
+		protected void setEntry(String key, String value) {
+			ENTRIES.put(key, value);
+		}
+
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.METHOD, ElementType.TYPE })
+	@Inherited
+	@Repeatable(ClearEntries.class)
+	@ResourceLock("entries")
+	@ExtendWith(EntryExtension.class)
+	@interface ClearEntry {
+
+		String value();
+
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.METHOD, ElementType.TYPE })
+	@Inherited
+	@ResourceLock("entries")
+	@ExtendWith(EntryExtension.class)
+	@interface ClearEntries {
+
+		ClearEntry[] value();
+
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.METHOD, ElementType.TYPE })
+	@Inherited
+	@Repeatable(SetEntries.class)
+	@ResourceLock("entries")
+	@ExtendWith(EntryExtension.class)
+	@interface SetEntry {
+
+		String key();
+
+		String value();
+
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.METHOD, ElementType.TYPE })
+	@Inherited
+	@ResourceLock("entries")
+	@ExtendWith(EntryExtension.class)
+	@interface SetEntries {
+
+		SetEntry[] value();
+
+	}
+
+}
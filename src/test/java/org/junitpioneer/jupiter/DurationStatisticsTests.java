@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("Duration statistics ")
+class DurationStatisticsTests {
+
+	@Test
+	@DisplayName("are zero without durations")
+	void empty() {
+		DurationStatistics statistics = new DurationStatistics();
+
+		assertThat(statistics.count()).isZero();
+		assertThat(statistics.min()).isZero();
+		assertThat(statistics.max()).isZero();
+		assertThat(statistics.mean()).isZero();
+		assertThat(statistics.percentile(50)).isZero();
+	}
+
+	@Test
+	@DisplayName("count exactly and compute percentiles within the histogram's precision")
+	void statistics() {
+		DurationStatistics statistics = new DurationStatistics();
+		for (long millis = 1; millis <= 1_000; millis++)
+			statistics.record(millis * 1_000_000);
+
+		assertThat(statistics.count()).isEqualTo(1_000);
+		assertThat(statistics.min()).isEqualTo(1_000_000);
+		assertThat(statistics.max()).isEqualTo(1_000_000_000);
+		assertThat(statistics.mean()).isEqualTo(500_500_000);
+		assertThat(statistics.percentile(50)).isCloseTo(500_000_000, within(500_000_000 / 32L));
+		assertThat(statistics.percentile(95)).isCloseTo(950_000_000, within(950_000_000 / 32L));
+		assertThat(statistics.percentile(99)).isCloseTo(990_000_000, within(990_000_000 / 32L));
+		assertThat(statistics.percentile(100)).isEqualTo(1_000_000_000);
+	}
+
+	@Test
+	@DisplayName("never report percentiles outside of the recorded durations")
+	void percentilesWithinMinAndMax() {
+		DurationStatistics statistics = new DurationStatistics();
+		statistics.record(1_234_567);
+
+		assertThat(statistics.percentile(0)).isEqualTo(1_234_567);
+		assertThat(statistics.percentile(50)).isEqualTo(1_234_567);
+		assertThat(statistics.percentile(100)).isEqualTo(1_234_567);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@ValueSource(longs = { 0, 1, 31, 32, 33, 63, 64, 65, 1_000, 1_234_567_890, Long.MAX_VALUE })
+	@DisplayName("record durations into buckets that contain them")
+	void bucketsContainValues(long value) {
+		int bucket = DurationStatistics.bucket(value);
+
+		assertThat(DurationStatistics.lowestValue(bucket)).isLessThanOrEqualTo(value);
+		assertThat(DurationStatistics.highestValue(bucket)).isGreaterThanOrEqualTo(value);
+	}
+
+}
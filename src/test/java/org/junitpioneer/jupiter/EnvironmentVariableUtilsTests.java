@@ -14,6 +14,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -35,6 +36,7 @@ class EnvironmentVariableUtilsTests {
 	@AfterEach
 	void removeTestEnvVar() {
 		EnvironmentVariableUtils.clear("TEST");
+		EnvironmentVariableUtils.clear("OTHER TEST");
 	}
 
 	@Test
@@ -48,6 +50,20 @@ class EnvironmentVariableUtilsTests {
 		assertThat(environmentCopy.get("TEST")).isEqualTo("test");
 	}
 
+	@Test
+	void clearsAndSetsSeveralVariablesAtOnce() {
+		EnvironmentVariableUtils.set("TEST", "test");
+
+		Map<String, String> entriesToSet = new HashMap<>();
+		entriesToSet.put("OTHER TEST", "other test");
+		EnvironmentVariableUtils.clearAndSet(Collections.singleton("TEST"), entriesToSet);
+
+		assertThat(System.getenv("TEST")).isNull();
+		assertThat(System.getenv("OTHER TEST")).isEqualTo("other test");
+		Map<String, String> environmentCopy = new HashMap<>(System.getenv());
+		assertThat(environmentCopy).containsEntry("OTHER TEST", "other test");
+	}
+
 	/*
 	 * The documentation mentions that without proper permissions an enabled security manager will not
 	 * give access to the internals we need to change environment variables. These tests confirm that.
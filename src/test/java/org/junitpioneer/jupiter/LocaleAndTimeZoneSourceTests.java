@@ -0,0 +1,191 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junitpioneer.testkit.PioneerTestKit.executeTestClass;
+import static org.junitpioneer.testkit.assertion.PioneerAssert.assertThat;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junitpioneer.jupiter.cartesian.CartesianTest;
+import org.junitpioneer.testkit.ExecutionResults;
+
+@DisplayName("LocaleSource and TimeZoneSource")
+class LocaleAndTimeZoneSourceTests {
+
+	@Nested
+	@DisplayName("with @ParameterizedTest")
+	class ParameterizedTests {
+
+		@ParameterizedTest
+		@LocaleSource({ "de-DE", "zh-Hant-TW" })
+		@DisplayName("provides the specified locales as defaults")
+		void providesSpecifiedLocales(Locale locale) {
+			assertThat(Locale.getDefault()).isEqualTo(locale);
+		}
+
+		@ParameterizedTest
+		@LocaleSource(matches = "de(-.*)?")
+		@DisplayName("provides the matching available locales as defaults")
+		void providesMatchingLocales(Locale locale) {
+			assertThat(locale.getLanguage()).isEqualTo("de");
+			assertThat(Locale.getDefault()).isEqualTo(locale);
+		}
+
+		@ParameterizedTest
+		@TimeZoneSource(matches = "Europe/.*")
+		@DisplayName("provides the matching available time zones as defaults")
+		void providesMatchingTimeZones(TimeZone timeZone) {
+			assertThat(timeZone.getID()).startsWith("Europe/");
+			assertThat(TimeZone.getDefault()).isEqualTo(timeZone);
+		}
+
+		@Test
+		@WritesDefaultLocale
+		@DisplayName("provides each locale and restores the default after each invocation")
+		void restoresDefaultLocale() {
+			Locale defaultLocale = Locale.getDefault();
+
+			ExecutionResults results = executeTestClass(RepresentativeLocalesTestCases.class);
+
+			assertThat(results).hasNumberOfSucceededTests(6);
+			assertThat(Locale.getDefault()).isEqualTo(defaultLocale);
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with @CartesianTest")
+	class CartesianTests {
+
+		@CartesianTest
+		@WritesDefaultLocale
+		@WritesDefaultTimeZone
+		@DisplayName("provides each combination of locale and time zone as defaults")
+		void providesCombinations(@LocaleSource({ "de-DE", "en-US" }) Locale locale,
+				@TimeZoneSource({ "Europe/Prague", "America/New_York" }) TimeZone timeZone) {
+			assertThat(Locale.getDefault()).isEqualTo(locale);
+			assertThat(TimeZone.getDefault()).isEqualTo(timeZone);
+		}
+
+		@Test
+		@WritesDefaultLocale
+		@WritesDefaultTimeZone
+		@DisplayName("runs each combination once")
+		void runsEachCombination() {
+			ExecutionResults results = executeTestClass(CartesianTestCases.class);
+
+			assertThat(results).hasNumberOfSucceededTests(4);
+		}
+
+	}
+
+	@Nested
+	@DisplayName("when misconfigured")
+	class ConfigurationTests {
+
+		@Test
+		@ReadsDefaultLocale
+		@DisplayName("throws exception for ill-formed language tags")
+		void throwsForIllFormedLanguageTag() {
+			ExecutionResults results = executeTestClass(IllFormedLanguageTagTestCases.class);
+
+			assertThat(results)
+					.hasSingleFailedContainer()
+					.withExceptionInstanceOf(ExtensionConfigurationException.class)
+					.hasMessageContaining("@LocaleSource not configured correctly.");
+		}
+
+		@Test
+		@ReadsDefaultTimeZone
+		@DisplayName("throws exception for unknown time zones")
+		void throwsForUnknownTimeZone() {
+			ExecutionResults results = executeTestClass(UnknownTimeZoneTestCases.class);
+
+			assertThat(results)
+					.hasSingleFailedContainer()
+					.withExceptionInstanceOf(ExtensionConfigurationException.class)
+					.hasMessageContaining("@TimeZoneSource not configured correctly.");
+		}
+
+		@Test
+		@ReadsDefaultLocale
+		@DisplayName("throws exception if no locale matches")
+		void throwsIfNoLocaleMatches() {
+			ExecutionResults results = executeTestClass(NoMatchingLocaleTestCases.class);
+
+			assertThat(results)
+					.hasSingleFailedContainer()
+					.withExceptionInstanceOf(ExtensionConfigurationException.class)
+					.hasMessageContaining("No locale matches");
+		}
+
+	}
+
+	static class RepresentativeLocalesTestCases {
+
+		// a script, a right-to-left language, special casing rules, and a Unicode extension
+		@ParameterizedTest
+		@LocaleSource({ "en-US", "de-DE", "zh-Hant-TW", "ar-EG", "tr-TR", "th-TH-u-nu-thai" })
+		void providesLocale(Locale locale) {
+			assertThat(Locale.getDefault()).isEqualTo(locale);
+		}
+
+	}
+
+	static class CartesianTestCases {
+
+		@CartesianTest
+		@WritesDefaultLocale
+		@WritesDefaultTimeZone
+		void providesCombinations(@LocaleSource({ "de-DE", "en-US" }) Locale locale,
+				@TimeZoneSource({ "Europe/Prague", "America/New_York" }) TimeZone timeZone) {
+			assertThat(Locale.getDefault()).isEqualTo(locale);
+			assertThat(TimeZone.getDefault()).isEqualTo(timeZone);
+		}
+
+	}
+
+	static class IllFormedLanguageTagTestCases {
+
+		@ParameterizedTest
+		@LocaleSource("de_DE")
+		void illFormedLanguageTag(Locale locale) {
+		}
+
+	}
+
+	static class UnknownTimeZoneTestCases {
+
+		@ParameterizedTest
+		@TimeZoneSource("Middle-earth/Shire")
+		void unknownTimeZone(TimeZone timeZone) {
+		}
+
+	}
+
+	static class NoMatchingLocaleTestCases {
+
+		@ParameterizedTest
+		@LocaleSource(value = { "de-DE", "en-US" }, matches = "fr.*")
+		void noMatchingLocale(Locale locale) {
+		}
+
+	}
+
+}
@@ -10,8 +10,10 @@
 
 package org.junitpioneer.jupiter;
 
+import static java.util.Collections.singletonMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junitpioneer.testkit.PioneerTestKit.executeTestClass;
 import static org.junitpioneer.testkit.PioneerTestKit.executeTestMethod;
 import static org.junitpioneer.testkit.PioneerTestKit.executeTestMethodWithParameterTypes;
@@ -26,9 +28,23 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Nested;
@@ -36,6 +52,8 @@ import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+import org.junit.jupiter.api.io.TempDir;
 import org.junitpioneer.testkit.ExecutionResults;
 
 /**
@@ -297,6 +315,502 @@ public class StdIoExtensionTests {
 			assertThat(results).hasSingleFailedTest();
 		}
 
+		@Test
+		@DisplayName("to capture to a file with a limit, an exception is thrown")
+		void captureToFileWithLimit() {
+			ExecutionResults results = executeTestMethodWithParameterTypes(IllegalConfigurationTestCases.class,
+				"captureToFileWithLimit", StdOut.class);
+
+			assertThat(results).hasSingleFailedTest();
+		}
+
+		@Test
+		@DisplayName("with several inputs, an exception is thrown")
+		void withSeveralInputs() {
+			ExecutionResults results = executeTestMethod(IllegalConfigurationTestCases.class, "severalInputs");
+
+			assertThat(results).hasSingleFailedTest();
+		}
+
+		@Test
+		@DisplayName("with an input resource that doesn't exist, an exception is thrown")
+		void withMissingInputResource() {
+			ExecutionResults results = executeTestMethod(IllegalConfigurationTestCases.class, "missingInputResource");
+
+			assertThat(results).hasSingleFailedTest();
+		}
+
+	}
+
+	@Nested
+	@DisplayName("captures bytes ")
+	class CapturingTests {
+
+		@Test
+		@DisplayName("of characters that were written one byte at a time")
+		void decodesBytesWrittenSeparately() {
+			StdOut out = new StdOut();
+			byte[] bytes = "Gr\u00fc\u00dfe, \u20ac and \ud83d\ude00".getBytes(Charset.defaultCharset());
+
+			for (byte b : bytes)
+				out.write(b);
+
+			assertThat(out.capturedLines()).containsExactly(new String(bytes, Charset.defaultCharset()));
+		}
+
+		@Test
+		@DisplayName("within the given offset and length")
+		void capturesRangeOfArray() {
+			StdOut out = new StdOut();
+			byte[] bytes = "--Which, like a tyrant--".getBytes(Charset.defaultCharset());
+
+			out.write(bytes, 2, bytes.length - 4);
+
+			assertThat(out.capturedLines()).containsExactly("Which, like a tyrant");
+		}
+
+		@Test
+		@DisplayName("that span several chunks and were captured in between")
+		void capturesLongOutput() {
+			StdOut out = new StdOut();
+			PrintStream stream = new PrintStream(out);
+
+			for (int i = 0; i < 10_000; i++) {
+				stream.println("line " + i);
+				if (i == 5_000)
+					assertThat(out.capturedLines()).hasSize(5_001).endsWith("line 5000");
+			}
+
+			assertThat(out.capturedLines()).hasSize(10_000).startsWith("line 0").endsWith("line 9999");
+		}
+
+		@Test
+		@StdIo(maxCapturedBytes = 20)
+		@DisplayName("up to the configured maximum, dropping the oldest ones")
+		void capturesMostRecentBytes(StdOut out) {
+			for (int i = 0; i < 1_000; i++)
+				System.out.print(i % 10);
+
+			assertThat(out.capturedLines()).containsExactly("01234567890123456789");
+			assertThat(out.writtenBytes()).isEqualTo(1_000);
+			assertThat(out.droppedBytes()).isEqualTo(980);
+		}
+
+		@Test
+		@DisplayName("up to the configured maximum, even if written at once")
+		void capturesMostRecentBytesOfLargeWrite() {
+			StdErr err = new StdErr(3);
+			byte[] bytes = "--But when from highmost pitch--".getBytes(Charset.defaultCharset());
+
+			err.write(bytes, 2, bytes.length - 4);
+
+			assertThat(err.capturedLines()).containsExactly("tch");
+			assertThat(err.droppedBytes()).isEqualTo(25);
+		}
+
+		@Test
+		@StdIo
+		@DisplayName("as a stream of lines")
+		void streamsLines(StdOut out) {
+			System.out.println("Lo! in the orient when the gracious light");
+			System.out.println();
+			System.out.print("Lifts up his burning head");
+
+			assertThat(out.lines())
+					.containsExactly("Lo! in the orient when the gracious light", "", "Lifts up his burning head");
+		}
+
+		@Test
+		@StdIo
+		@DisplayName("as complete lines that are only returned once")
+		void readsNextLines(StdOut out) {
+			System.out.println("Lo! in the orient when the gracious light");
+			System.out.print("Lifts up his burning head,");
+			assertThat(out.nextLines()).containsExactly("Lo! in the orient when the gracious light");
+
+			System.out.println(" each under eye");
+			assertThat(out.nextLines()).containsExactly("Lifts up his burning head, each under eye");
+			assertThat(out.nextLines()).isEmpty();
+		}
+
+		@Test
+		@StdIo
+		@DisplayName("as lines that can be awaited")
+		void awaitsLine(StdOut out) throws InterruptedException {
+			Thread writer = new Thread(() -> {
+				System.out.println("Doth homage to his new-appearing sight,");
+				System.out.println("Serving with looks his sacred majesty;");
+			});
+			writer.start();
+
+			assertThat(out.awaitLine(line -> line.startsWith("Serving"), Duration.ofSeconds(10)))
+					.hasValue("Serving with looks his sacred majesty;");
+			writer.join();
+			assertThat(out.awaitLine(line -> line.startsWith("And"), Duration.ofMillis(10))).isEmpty();
+		}
+
+	}
+
+	@Nested
+	@DisplayName("provides input ")
+	class InputTests {
+
+		@Test
+		@StdIo({ "Lo! in the orient when the gracious light", "Lifts up his burning head, each under eye" })
+		@DisplayName("that can be read in bulk")
+		void readsInBulk(StdIn in) throws IOException {
+			byte[] buffer = new byte[1024];
+			int reading = System.in.read(buffer);
+
+			assertThat(new String(buffer, 0, reading, Charset.defaultCharset()))
+					.isEqualTo("Lo! in the orient when the gracious light" + StdIoExtension.SEPARATOR
+							+ "Lifts up his burning head, each under eye");
+			assertThat(System.in.read(buffer)).isEqualTo(-1);
+			assertThat(in.capturedLines())
+					.containsExactly("Lo! in the orient when the gracious light",
+						"Lifts up his burning head, each under eye");
+		}
+
+		@Test
+		@StdIo({ "Lo! in the orient when the gracious light", "Lifts up his burning head, each under eye" })
+		@DisplayName("of which only the read part is captured")
+		void capturesReadPart(StdIn in) throws IOException {
+			byte[] buffer = new byte[17];
+			int reading = System.in.read(buffer);
+
+			assertThat(reading).isEqualTo(17);
+			assertThat(in.capturedLines()).containsExactly("Lo! in the orient");
+		}
+
+		@Test
+		@StdIo(inputResource = "org/junitpioneer/jupiter/stdio/sonnet.txt")
+		@DisplayName("from a classpath resource")
+		void readsResource() throws IOException {
+			app.read();
+
+			assertThat(app.lines)
+					.containsExactly("Lo! in the orient when the gracious light",
+						"Lifts up his burning head, each under eye");
+		}
+
+		@Test
+		@StdIo(inputFile = "src/test/resources/org/junitpioneer/jupiter/stdio/sonnet.txt")
+		@DisplayName("from a file")
+		void readsFile() throws IOException {
+			app.read();
+
+			assertThat(app.lines)
+					.containsExactly("Lo! in the orient when the gracious light",
+						"Lifts up his burning head, each under eye");
+		}
+
+		@Test
+		@WritesStdIo
+		@DisplayName("from a file that is closed after the test")
+		void closesFile() throws IOException {
+			Path inputFile = Paths.get(InputFileTestCases.INPUT_FILE);
+			Files.createDirectories(inputFile.getParent());
+			Files.write(inputFile, "Lo! in the orient when the gracious light".getBytes(Charset.defaultCharset()));
+			try {
+				ExecutionResults results = executeTestClass(InputFileTestCases.class);
+
+				assertThat(results).hasSingleSucceededTest();
+				assertThatThrownBy(() -> InputFileTestCases.stdIn.read()).isInstanceOf(IOException.class);
+			}
+			finally {
+				// on Windows, this fails if the file is still open
+				Files.delete(inputFile);
+			}
+		}
+
+	}
+
+	@Nested
+	@DisplayName("captures to a file ")
+	class CapturingToFileTests {
+
+		@Test
+		@StdIo(captureToFile = true)
+		@DisplayName("the output on the standard out and err")
+		void capturesToFile(StdOut out, StdErr err) {
+			System.out.println("Lo! in the orient when the gracious light");
+			System.err.println("Lifts up his burning head, each under eye");
+
+			assertThat(out.capturedFile()).hasValueSatisfying(file -> assertThat(file).exists());
+			assertThat(out.capturedLines()).containsExactly("Lo! in the orient when the gracious light");
+			assertThat(err.capturedLines()).containsExactly("Lifts up his burning head, each under eye");
+		}
+
+		@Test
+		@StdIo(captureToFile = true)
+		@DisplayName("that can be compared to an expected file")
+		void comparesToExpectedFile(StdOut out, @TempDir Path directory) throws IOException {
+			System.out.print("Doth homage to his new-appearing sight");
+
+			Path expectedFile = directory.resolve("expected.txt");
+			Files.write(expectedFile, "Doth homage to his new-appearing sight".getBytes(Charset.defaultCharset()));
+			assertThat(out.mismatch(expectedFile)).isEqualTo(-1);
+			Files.write(expectedFile, "Doth homage to his new appearing sight".getBytes(Charset.defaultCharset()));
+			assertThat(out.mismatch(expectedFile)).isEqualTo(23);
+			Files.write(expectedFile, "Doth homage".getBytes(Charset.defaultCharset()));
+			assertThat(out.mismatch(expectedFile)).isEqualTo(11);
+		}
+
+		@Test
+		@StdIo(captureToFile = true)
+		@DisplayName("that can be viewed as bytes")
+		void viewsBytes(StdOut out) {
+			System.out.print("Serving with looks his sacred majesty;");
+
+			ByteBuffer bytes = out.capturedBytes();
+			assertThat(Charset.defaultCharset().decode(bytes).toString())
+					.isEqualTo("Serving with looks his sacred majesty;");
+		}
+
+		@Test
+		@StdIo(captureToFile = true)
+		@DisplayName("that is read region by region")
+		void readsAcrossRegions(StdOut out, @TempDir Path directory) throws IOException {
+			List<String> lines = new ArrayList<>();
+			int lineBytes = 0;
+			while (lineBytes <= StdOutputStream.COMPARED_REGION_SIZE + StdOutputStream.READ_REGION_SIZE) {
+				String line = "To show me worthy of thy sweet respect " + lines.size();
+				lines.add(line);
+				lineBytes += line.length() + StdIoExtension.SEPARATOR.length();
+			}
+			String text = String.join(StdIoExtension.SEPARATOR, lines);
+			System.out.print(text);
+
+			assertThat(out.capturedLines()).containsExactlyElementsOf(lines);
+			assertThat(out.lines()).containsExactlyElementsOf(lines);
+
+			byte[] expected = text.getBytes(Charset.defaultCharset());
+			Path expectedFile = directory.resolve("expected.txt");
+			Files.write(expectedFile, expected);
+			assertThat(out.mismatch(expectedFile)).isEqualTo(-1);
+			int changedByte = StdOutputStream.COMPARED_REGION_SIZE + 42;
+			expected[changedByte] = '!';
+			Files.write(expectedFile, expected);
+			assertThat(out.mismatch(expectedFile)).isEqualTo(changedByte);
+		}
+
+		@Test
+		@StdIo
+		@DisplayName("or compares output captured in memory to an expected file")
+		void comparesMemoryToExpectedFile(StdOut out, @TempDir Path directory) throws IOException {
+			System.out.print("Doth homage to his new-appearing sight");
+
+			Path expectedFile = directory.resolve("expected.txt");
+			Files.write(expectedFile, "Doth homage to his new-appearing sight".getBytes(Charset.defaultCharset()));
+			assertThat(out.capturedFile()).isEmpty();
+			assertThat(out.mismatch(expectedFile)).isEqualTo(-1);
+			Files.write(expectedFile, "Doth homage to his new-appearing sight!".getBytes(Charset.defaultCharset()));
+			assertThat(out.mismatch(expectedFile)).isEqualTo(38);
+		}
+
+		@Test
+		@WritesStdIo
+		@DisplayName("that is kept in the configured directory")
+		void keepsFileInCaptureDirectory(@TempDir Path directory) throws IOException {
+			ExecutionResults results = executeTestClass(CaptureToFileTestCases.class,
+				singletonMap(StdIoExtension.CAPTURE_DIRECTORY_PARAMETER, directory.toString()));
+
+			assertThat(results).hasSingleSucceededTest();
+			assertThat(CaptureToFileTestCases.capturedFile)
+					.hasParent(directory)
+					.hasContent("Lo! in the orient when the gracious light");
+			assertThat(CaptureToFileTestCases.capturedFile.getFileName().toString())
+					.startsWith("CaptureToFileTestCases.capturesToFile-");
+		}
+
+		@Test
+		@WritesStdIo
+		@DisplayName("that is temporary without configured directory")
+		void deletesTemporaryFile() {
+			ExecutionResults results = executeTestClass(CaptureToFileTestCases.class);
+
+			assertThat(results).hasSingleSucceededTest();
+			assertThat(CaptureToFileTestCases.capturedFile).doesNotExist();
+		}
+
+	}
+
+	@Nested
+	@DisplayName("when isolating threads ")
+	class ThreadIsolatedTests {
+
+		@Test
+		@WritesStdIo
+		@DisplayName("captures only the output of the test's thread and threads it starts")
+		void capturesOnlyOutputOfTestThread() {
+			ExecutionResults results = executeTestClass(ThreadIsolatedTestCases.class,
+				singletonMap(StdIoExtension.ISOLATE_THREADS_PARAMETER, "true"));
+
+			assertThat(results).hasNumberOfSucceededTests(2);
+			assertThat(System.out).isSameAs(STDOUT);
+			assertThat(System.err).isSameAs(STDERR);
+		}
+
+		@Test
+		@WritesStdIo
+		@DisplayName("does not capture the output of threads the test started after it ends")
+		void doesNotCaptureOutputAfterTest() {
+			ExecutionResults results = executeTestClass(LongLivedThreadTestCases.class,
+				singletonMap(StdIoExtension.ISOLATE_THREADS_PARAMETER, "true"));
+
+			assertThat(results).hasNumberOfSucceededTests(1);
+			assertThat(results).hasNumberOfFailedContainers(0);
+			assertThat(LongLivedThreadTestCases.capturedOut.capturedLines())
+					.containsExactly("And having climbed the steep-up heavenly hill,");
+		}
+
+		@Test
+		@WritesStdIo
+		@DisplayName("lets tests with @IsolatedStdIo capture their own output concurrently")
+		void runsIsolatedStdIoTestsConcurrently() {
+			Map<String, String> configuration = new HashMap<>();
+			configuration.put(StdIoExtension.ISOLATE_THREADS_PARAMETER, "true");
+			configuration.put("junit.jupiter.execution.parallel.enabled", "true");
+			configuration.put("junit.jupiter.execution.parallel.mode.default", "concurrent");
+			configuration.put("junit.jupiter.execution.parallel.config.strategy", "fixed");
+			configuration.put("junit.jupiter.execution.parallel.config.fixed.parallelism", "2");
+
+			ExecutionResults results = executeTestClass(ConcurrentlyIsolatedTestCases.class, configuration);
+
+			assertThat(results).hasNumberOfSucceededTests(2);
+			assertThat(System.out).isSameAs(STDOUT);
+		}
+
+		@Test
+		@DisplayName("fails @IsolatedStdIo if threads are not isolated")
+		void failsIsolatedStdIoWithoutIsolatedThreads() {
+			ExecutionResults results = executeTestClass(ConcurrentlyIsolatedTestCases.class);
+
+			assertThat(results)
+					.hasNumberOfFailedTests(2)
+					.withExceptionInstancesOf(ExtensionConfigurationException.class);
+		}
+
+	}
+
+	static class ConcurrentlyIsolatedTestCases {
+
+		// each test only finishes once the other one wrote its output, so they need to run at the same time
+		private static final CountDownLatch BOTH_WRITTEN = new CountDownLatch(2);
+
+		@Test
+		@IsolatedStdIo
+		void first(StdOut out) throws InterruptedException {
+			writeAndAwaitOther("From his low tract, and look another way:");
+			assertThat(out.capturedLines()).containsExactly("From his low tract, and look another way:");
+		}
+
+		@Test
+		@IsolatedStdIo
+		void second(StdOut out) throws InterruptedException {
+			writeAndAwaitOther("So thou, thyself outgoing in thy noon,");
+			assertThat(out.capturedLines()).containsExactly("So thou, thyself outgoing in thy noon,");
+		}
+
+		private static void writeAndAwaitOther(String line) throws InterruptedException {
+			System.out.println(line);
+			BOTH_WRITTEN.countDown();
+			if (!BOTH_WRITTEN.await(10, TimeUnit.SECONDS))
+				throw new IllegalStateException("Tests did not run concurrently");
+		}
+
+	}
+
+	static class ThreadIsolatedTestCases {
+
+		private static ExecutorService executor;
+
+		@BeforeAll
+		static void startExecutor() throws Exception {
+			executor = Executors.newSingleThreadExecutor();
+			// start the executor's thread before the test's output is routed, so it doesn't inherit that
+			executor.submit(() -> {
+			}).get();
+		}
+
+		@AfterAll
+		static void stopExecutor() {
+			executor.shutdown();
+		}
+
+		@Test
+		@StdIo
+		void capturesOutputOfTestThread(StdOut out, StdErr err) throws InterruptedException {
+			assertThat(System.out).isNotSameAs(STDOUT);
+
+			System.out.println("Lo! in the orient when the gracious light");
+			Thread childThread = new Thread(() -> System.err.println("Lifts up his burning head, each under eye"));
+			childThread.start();
+			childThread.join();
+
+			assertThat(out.capturedLines()).containsExactly("Lo! in the orient when the gracious light");
+			assertThat(err.capturedLines()).containsExactly("Lifts up his burning head, each under eye");
+		}
+
+		@Test
+		@StdIo
+		void doesNotCaptureOutputOfOtherThreads(StdOut out) throws Exception {
+			System.out.println("Doth homage to his new-appearing sight,");
+			executor.submit(() -> System.out.println("Serving with looks his sacred majesty;")).get();
+
+			assertThat(out.capturedLines()).containsExactly("Doth homage to his new-appearing sight,");
+		}
+
+	}
+
+	static class InputFileTestCases {
+
+		static final String INPUT_FILE = "build/tmp/std-io/input.txt";
+		private static StdIn stdIn;
+
+		@Test
+		@StdIo(inputFile = INPUT_FILE)
+		void readsFile(StdIn in) throws IOException {
+			stdIn = in;
+			assertThat(System.in.read()).isEqualTo('L');
+		}
+
+	}
+
+	static class CaptureToFileTestCases {
+
+		private static Path capturedFile;
+
+		@Test
+		@StdIo(captureToFile = true)
+		void capturesToFile(StdOut out) {
+			System.out.print("Lo! in the orient when the gracious light");
+			capturedFile = out.capturedFile().get();
+		}
+
+	}
+
+	static class LongLivedThreadTestCases {
+
+		static StdOut capturedOut;
+		private static ExecutorService testThread;
+
+		@AfterAll
+		static void writeAfterTest() throws Exception {
+			testThread.submit(() -> System.out.println("Resembling strong youth in his middle age,")).get();
+			testThread.shutdown();
+		}
+
+		@Test
+		@StdIo
+		void capturesOutputOfStartedThreads(StdOut out) throws Exception {
+			capturedOut = out;
+			testThread = Executors.newSingleThreadExecutor();
+			testThread.submit(() -> System.out.println("And having climbed the steep-up heavenly hill,")).get();
+
+			assertThat(out.capturedLines()).containsExactly("And having climbed the steep-up heavenly hill,");
+		}
+
 	}
 
 	static class CorrectConfigurationTestCases {
@@ -330,6 +844,21 @@ public class StdIoExtensionTests {
 		void noInputButStdIn(StdIn in) {
 		}
 
+		@Test
+		@StdIo(captureToFile = true, maxCapturedBytes = 20)
+		void captureToFileWithLimit(StdOut out) {
+		}
+
+		@Test
+		@StdIo(value = "Hello, World", inputResource = "org/junitpioneer/jupiter/stdio/sonnet.txt")
+		void severalInputs() {
+		}
+
+		@Test
+		@StdIo(inputResource = "org/junitpioneer/jupiter/stdio/missing.txt")
+		void missingInputResource() {
+		}
+
 	}
 
 	/**
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Stopwatch baseline ")
+class StopwatchBaselineTests {
+
+	private static final long[] DURATIONS = LongStream.rangeClosed(1, 20).map(i -> i * 1_000).toArray();
+
+	@Test
+	@DisplayName("is stored if there is none")
+	void storesBaseline(@TempDir Path directory) {
+		StopwatchBaseline baseline = new StopwatchBaseline(directory.resolve("nested").resolve("baseline.txt"));
+
+		assertThat(baseline.compare(DURATIONS)).isEmpty();
+		assertThat(directory.resolve("nested").resolve("baseline.txt")).exists();
+		assertThat(baseline.compare(DURATIONS)).isPresent();
+	}
+
+	@Test
+	@DisplayName("is neither stored nor compared with too few durations")
+	void ignoresFewDurations(@TempDir Path directory) {
+		StopwatchBaseline baseline = new StopwatchBaseline(directory.resolve("baseline.txt"));
+
+		assertThat(baseline.compare(new long[] { 1, 2, 3 })).isEmpty();
+		assertThat(directory.resolve("baseline.txt")).doesNotExist();
+	}
+
+	@Test
+	@DisplayName("considers identical durations not slower")
+	void identicalDurations() {
+		assertThat(StopwatchBaseline.slowdownProbability(DURATIONS, DURATIONS)).isGreaterThan(0.4);
+	}
+
+	@Test
+	@DisplayName("considers durations that are all longer significantly slower")
+	void slowerDurations() {
+		long[] slowerDurations = LongStream.of(DURATIONS).map(duration -> duration + 25_000).toArray();
+
+		assertThat(StopwatchBaseline.slowdownProbability(DURATIONS, slowerDurations))
+				.isLessThan(StopwatchExtension.SLOWDOWN_SIGNIFICANCE);
+	}
+
+	@Test
+	@DisplayName("considers durations that are all shorter not slower")
+	void fasterDurations() {
+		long[] fasterDurations = LongStream.of(DURATIONS).map(duration -> duration - 25_000).toArray();
+
+		assertThat(StopwatchBaseline.slowdownProbability(DURATIONS, fasterDurations)).isGreaterThan(0.99);
+	}
+
+}
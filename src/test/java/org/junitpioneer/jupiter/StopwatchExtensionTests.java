@@ -10,14 +10,32 @@
 
 package org.junitpioneer.jupiter;
 
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.junitpioneer.testkit.assertion.PioneerAssert.assertThat;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.RepetitionInfo;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.platform.engine.reporting.ReportEntry;
 import org.junitpioneer.testkit.ExecutionResults;
 import org.junitpioneer.testkit.PioneerTestKit;
 import org.junitpioneer.testkit.assertion.reportentry.ReportEntryContentAssert;
+import org.opentest4j.AssertionFailedError;
 
 @DisplayName("Stopwatch extension ")
 public class StopwatchExtensionTests {
@@ -62,6 +80,185 @@ public class StopwatchExtensionTests {
 		assertThat(results).hasNumberOfReportEntries(0);
 	}
 
+	@Test
+	@DisplayName("should report an entry for each invocation of a test template and their statistics on the template")
+	void runTemplateTest() {
+		ExecutionResults results = PioneerTestKit.executeTestClass(TemplateTestCases.class);
+
+		List<Map<String, String>> entries = reportEntries(results);
+		Assertions.assertThat(entries).hasSize(4);
+		Assertions
+				.assertThat(entries.subList(0, 3))
+				.allSatisfy(entry -> Assertions
+						.assertThat(entry.get(StopwatchExtension.STORE_KEY))
+						.matches("Execution of 'repetition [1-3] of 3' took \\[[0-9]*\\] ms."));
+
+		Map<String, String> statistics = entries.get(3);
+		Assertions
+				.assertThat(statistics)
+				.containsOnlyKeys("StopwatchExtension.count", "StopwatchExtension.min-ns", "StopwatchExtension.mean-ns",
+					"StopwatchExtension.max-ns", "StopwatchExtension.p50-ns", "StopwatchExtension.p95-ns",
+					"StopwatchExtension.p99-ns")
+				.containsEntry("StopwatchExtension.count", "3");
+		long min = Long.parseLong(statistics.get("StopwatchExtension.min-ns"));
+		long p50 = Long.parseLong(statistics.get("StopwatchExtension.p50-ns"));
+		long p99 = Long.parseLong(statistics.get("StopwatchExtension.p99-ns"));
+		long max = Long.parseLong(statistics.get("StopwatchExtension.max-ns"));
+		Assertions.assertThat(min).isNotNegative().isLessThanOrEqualTo(p50);
+		Assertions.assertThat(p50).isLessThanOrEqualTo(p99);
+		Assertions.assertThat(p99).isLessThanOrEqualTo(max);
+	}
+
+	@Test
+	@DisplayName("should fail a test that exceeds its budget")
+	void failExceededBudget() {
+		ExecutionResults results = PioneerTestKit.executeTestMethod(BudgetTestCases.class, "exceedsBudget");
+
+		assertThat(results)
+				.hasSingleFailedTest()
+				.withExceptionInstanceOf(AssertionFailedError.class)
+				.hasMessageMatching("Execution of 'exceedsBudget\\(\\)' took \\[[0-9]*\\] ms, "
+						+ "which exceeds the budget of \\[1\\] ms.");
+	}
+
+	@Test
+	@DisplayName("should not fail a test within its budget")
+	void passWithinBudget() {
+		ExecutionResults results = PioneerTestKit.executeTestMethod(BudgetTestCases.class, "withinBudget");
+
+		assertThat(results).hasSingleSucceededTest();
+	}
+
+	@Test
+	@DisplayName("should fail a template whose percentile exceeds the budget, but not its invocations")
+	void failExceededPercentileBudget() {
+		ExecutionResults results = PioneerTestKit
+				.executeTestMethodWithParameterTypes(BudgetTestCases.class, "percentileExceedsBudget",
+					RepetitionInfo.class);
+
+		assertThat(results).hasNumberOfSucceededTests(4);
+		assertThat(results)
+				.hasSingleFailedContainer()
+				.withExceptionInstanceOf(AssertionFailedError.class)
+				.hasMessageStartingWith("The 50th percentile of the executions of 'percentileExceedsBudget(RepetitionInfo)'");
+	}
+
+	@Test
+	@DisplayName("should not fail a template whose percentile is within the budget")
+	void passWithinPercentileBudget() {
+		ExecutionResults results = PioneerTestKit
+				.executeTestMethodWithParameterTypes(BudgetTestCases.class, "percentileWithinBudget",
+					RepetitionInfo.class);
+
+		assertThat(results).hasNumberOfSucceededTests(4);
+		assertThat(results).hasNumberOfFailedContainers(0);
+	}
+
+	@Test
+	@DisplayName("should record a baseline for a template and fail once it is significantly slower")
+	void failSlowdown(@TempDir Path baselineDirectory) throws IOException {
+		Map<String, String> configuration = singletonMap(StopwatchExtension.BASELINE_DIRECTORY_PARAMETER,
+			baselineDirectory.toString());
+
+		ExecutionResults firstResults = PioneerTestKit.executeTestClass(BaselineTestCases.class, configuration);
+		assertThat(firstResults).hasNumberOfFailedContainers(0);
+		List<Path> baselines = Files.list(baselineDirectory).collect(toList());
+		Assertions.assertThat(baselines).hasSize(1);
+		Assertions
+				.assertThat(baselines.get(0).getFileName().toString())
+				.startsWith(BaselineTestCases.class.getName() + ".stopwatchExtensionShouldCompareToBaseline-");
+
+		// pretend that the invocations took no time at all during the baseline run
+		List<String> fastBaseline = Collections.nCopies(StopwatchBaseline.MIN_DURATIONS, "0");
+		Files.write(baselines.get(0), fastBaseline);
+		ExecutionResults secondResults = PioneerTestKit.executeTestClass(BaselineTestCases.class, configuration);
+		assertThat(secondResults)
+				.hasSingleFailedContainer()
+				.withExceptionInstanceOf(AssertionFailedError.class)
+				.hasMessageContaining("significantly slower than the baseline");
+	}
+
+	@Test
+	@DisplayName("should run warm-up and measured iterations and report the statistics of the latter")
+	void runIterations() {
+		IterationTestCases.EXECUTIONS.set(0);
+		ExecutionResults results = PioneerTestKit
+				.executeTestMethodWithParameterTypes(IterationTestCases.class, "iterated", Blackhole.class);
+
+		assertThat(results).hasSingleSucceededTest();
+		Assertions.assertThat(IterationTestCases.EXECUTIONS).hasValue(8);
+		List<Map<String, String>> entries = reportEntries(results);
+		Assertions.assertThat(entries).hasSize(2);
+		Assertions
+				.assertThat(entries.get(0))
+				.containsEntry("StopwatchExtension.count", "5")
+				.containsKeys("StopwatchExtension.min-ns", "StopwatchExtension.p99-ns");
+		Assertions
+				.assertThat(entries.get(1).get(StopwatchExtension.STORE_KEY))
+				.matches("Execution of 'iterated\\(Blackhole\\)' took \\[[0-9]*\\] ms.");
+	}
+
+	@Test
+	@DisplayName("should fail a test whose iterations exceed the budget")
+	void failIterationsExceedingBudget() {
+		ExecutionResults results = PioneerTestKit.executeTestMethod(IterationTestCases.class, "exceedsBudget");
+
+		assertThat(results)
+				.hasSingleFailedTest()
+				.withExceptionInstanceOf(AssertionFailedError.class)
+				.hasMessageStartingWith("The 100th percentile of the executions of 'exceedsBudget()'");
+	}
+
+	@Test
+	@DisplayName("should fail a test without iterations")
+	void failWithoutIterations() {
+		ExecutionResults results = PioneerTestKit.executeTestMethod(IterationTestCases.class, "noIterations");
+
+		assertThat(results).hasSingleFailedTest().withExceptionInstanceOf(ExtensionConfigurationException.class);
+	}
+
+	@Test
+	@DisplayName("should report the resources a test used")
+	void reportResourceUsage() {
+		assumeTrue(ResourceUsage.canMeasureAllocations(), "The JVM doesn't track allocations");
+
+		ExecutionResults results = PioneerTestKit.executeTestMethod(ResourceTestCases.class, "measured");
+
+		assertThat(results).hasSingleSucceededTest();
+		List<Map<String, String>> entries = reportEntries(results);
+		Assertions.assertThat(entries).hasSize(2);
+		Assertions
+				.assertThat(entries.get(0).get(StopwatchExtension.STORE_KEY))
+				.matches("Execution of 'measured\\(\\)' took \\[[0-9]*\\] ms.");
+		Assertions
+				.assertThat(entries.get(1))
+				.containsKeys("StopwatchExtension.gc-count", "StopwatchExtension.gc-ns")
+				.hasEntrySatisfying("StopwatchExtension.allocated-bytes",
+					bytes -> Assertions.assertThat(Long.parseLong(bytes)).isGreaterThanOrEqualTo(1_000_000));
+	}
+
+	@Test
+	@DisplayName("should fail a test that allocates more than its budget")
+	void failExceededAllocationBudget() {
+		assumeTrue(ResourceUsage.canMeasureAllocations(), "The JVM doesn't track allocations");
+
+		ExecutionResults results = PioneerTestKit.executeTestMethod(ResourceTestCases.class, "exceedsBudget");
+
+		assertThat(results)
+				.hasSingleFailedTest()
+				.withExceptionInstanceOf(AssertionFailedError.class)
+				.hasMessageMatching("Execution of 'exceedsBudget\\(\\)' allocated \\[[0-9]*\\] bytes, "
+						+ "which exceeds the budget of \\[1000\\] bytes.");
+	}
+
+	@Test
+	@DisplayName("should not fail a test that allocates less than its budget")
+	void passWithinAllocationBudget() {
+		ExecutionResults results = PioneerTestKit.executeTestMethod(ResourceTestCases.class, "withinBudget");
+
+		assertThat(results).hasSingleSucceededTest();
+	}
+
 	@Test
 	@DisplayName("should not change the report entry key")
 	void verifyReportEntryKey() {
@@ -70,6 +267,17 @@ public class StopwatchExtensionTests {
 		Assertions.assertThat(StopwatchExtension.STORE_KEY).startsWith("StopwatchExtension");
 	}
 
+	private static List<Map<String, String>> reportEntries(ExecutionResults results) {
+		return results
+				.allEvents()
+				.reportingEntryPublished()
+				.stream()
+				.map(event -> event.getPayload(ReportEntry.class))
+				.filter(Optional::isPresent)
+				.map(entry -> entry.get().getKeyValuePairs())
+				.collect(toList());
+	}
+
 	private void assertStringStartWithUnitAndContainsName(ExecutionResults results, String methodName) {
 		ReportEntryContentAssert reportEntry = assertThat(results).hasNumberOfReportEntries(1);
 		reportEntry.firstValue().matches(String.format("Execution of '%s\\(\\)' took \\[[0-9]*\\] ms.", methodName));
@@ -113,6 +321,118 @@ public class StopwatchExtensionTests {
 
 	}
 
+	/**
+	 * Inner test class for testing a test template.
+	 */
+	static class TemplateTestCases {
+
+		@RepeatedTest(3)
+		@Stopwatch
+		void stopwatchExtensionShouldReportStatistics() {
+		}
+
+	}
+
+	/**
+	 * Inner test class for testing budgets.
+	 */
+	static class BudgetTestCases {
+
+		@Test
+		@Stopwatch(maxDurationMs = 1)
+		void exceedsBudget() throws InterruptedException {
+			Thread.sleep(50);
+		}
+
+		@Test
+		@Stopwatch(maxDurationMs = 60_000)
+		void withinBudget() {
+		}
+
+		@RepeatedTest(4)
+		@Stopwatch(maxDurationMs = 1, percentile = 50)
+		void percentileExceedsBudget(RepetitionInfo repetition) throws InterruptedException {
+			if (repetition.getCurrentRepetition() > 1)
+				Thread.sleep(50);
+		}
+
+		@RepeatedTest(4)
+		@Stopwatch(maxDurationMs = 100, percentile = 50)
+		void percentileWithinBudget(RepetitionInfo repetition) throws InterruptedException {
+			// exceeds the budget, but isn't part of the budgeted percentile
+			if (repetition.getCurrentRepetition() == 1)
+				Thread.sleep(150);
+		}
+
+	}
+
+	/**
+	 * Inner test class for testing iterations.
+	 */
+	static class IterationTestCases {
+
+		static final AtomicInteger EXECUTIONS = new AtomicInteger();
+
+		@Test
+		@Stopwatch(warmupIterations = 3, iterations = 5, gcBetweenIterations = true)
+		void iterated(Blackhole blackhole) {
+			blackhole.consume(EXECUTIONS.incrementAndGet());
+		}
+
+		@Test
+		@Stopwatch(iterations = 3, maxDurationMs = 1)
+		void exceedsBudget() throws InterruptedException {
+			Thread.sleep(50);
+		}
+
+		@Test
+		@Stopwatch(iterations = 0)
+		void noIterations() {
+		}
+
+	}
+
+	/**
+	 * Inner test class for testing resource usage.
+	 */
+	static class ResourceTestCases {
+
+		// a field keeps the JIT compiler from optimizing the allocations away
+		static byte[] allocated;
+
+		@Test
+		@Stopwatch(measureResources = true)
+		void measured() {
+			allocated = new byte[1_000_000];
+		}
+
+		@Test
+		@Stopwatch(maxAllocatedBytes = 1_000)
+		void exceedsBudget() {
+			allocated = new byte[1_000_000];
+		}
+
+		@Test
+		@Stopwatch(maxAllocatedBytes = 100_000_000)
+		void withinBudget() {
+			allocated = new byte[1_000];
+		}
+
+	}
+
+	/**
+	 * Inner test class for testing the baseline.
+	 */
+	static class BaselineTestCases {
+
+		@RepeatedTest(StopwatchBaseline.MIN_DURATIONS)
+		@Stopwatch
+		void stopwatchExtensionShouldCompareToBaseline() throws InterruptedException {
+			Thread.sleep(1);
+		}
+
+	}
+
 	/**
 	 * Inner test class for testing a not annotated method / class annotation.
 	 */
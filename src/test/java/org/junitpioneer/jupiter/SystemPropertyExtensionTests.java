@@ -10,10 +10,20 @@
 
 package org.junitpioneer.jupiter;
 
+import static java.util.Collections.singletonMap;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junitpioneer.testkit.PioneerTestKit.executeTestClass;
 import static org.junitpioneer.testkit.PioneerTestKit.executeTestMethod;
 import static org.junitpioneer.testkit.assertion.PioneerAssert.assertThat;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -292,6 +302,274 @@ class SystemPropertyExtensionTests {
 
 	}
 
+	@Nested
+	@DisplayName("with several levels of nested classes")
+	class DeeplyNestedSystemPropertyTests {
+
+		@Test
+		@WritesSystemProperty
+		@DisplayName("should restore all levels' system properties, including the ones changed by tests")
+		void shouldRestoreAllLevels() {
+			System.setProperty("deeply nested clear", "original clear");
+			try {
+				ExecutionResults results = executeTestClass(DeeplyNestedTestCases.class);
+
+				assertThat(results).hasNumberOfSucceededTests(2);
+				assertThat(System.getProperty("deeply nested outer")).isNull();
+				assertThat(System.getProperty("deeply nested inner")).isNull();
+				assertThat(System.getProperty("deeply nested clear")).isEqualTo("original clear");
+				assertThat(System.getProperty("deeply nested method")).isNull();
+			}
+			finally {
+				System.clearProperty("deeply nested clear");
+			}
+		}
+
+	}
+
+	@SetSystemProperty(key = "deeply nested outer", value = "outer")
+	static class DeeplyNestedTestCases {
+
+		@Nested
+		@SetSystemProperty(key = "deeply nested inner", value = "inner")
+		@ClearSystemProperty(key = "deeply nested clear")
+		class InnerTestCases {
+
+			@Nested
+			@TestMethodOrder(OrderAnnotation.class)
+			@SetSystemProperty(key = "deeply nested outer", value = "innermost")
+			class InnermostTestCases {
+
+				@Test
+				@Order(1)
+				@SetSystemProperty(key = "deeply nested method", value = "method")
+				void changeSystemProperties() {
+					assertThat(System.getProperty("deeply nested outer")).isEqualTo("innermost");
+					assertThat(System.getProperty("deeply nested inner")).isEqualTo("inner");
+					assertThat(System.getProperty("deeply nested clear")).isNull();
+					assertThat(System.getProperty("deeply nested method")).isEqualTo("method");
+					System.setProperty("deeply nested inner", "changed by test");
+					System.setProperty("deeply nested clear", "changed by test");
+				}
+
+				@Test
+				@Order(2)
+				void seeRestoredSystemProperties() {
+					assertThat(System.getProperty("deeply nested outer")).isEqualTo("innermost");
+					assertThat(System.getProperty("deeply nested inner")).isEqualTo("inner");
+					assertThat(System.getProperty("deeply nested clear")).isNull();
+					assertThat(System.getProperty("deeply nested method")).isNull();
+				}
+
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with isolated threads")
+	class ThreadIsolatedSystemPropertyTests {
+
+		@Test
+		@WritesSystemProperty
+		@DisplayName("should set system properties only for the test's thread and threads it starts")
+		void shouldSetSystemPropertiesOnlyForTestThread() {
+			System.setProperty("isolated set", "global set");
+			System.setProperty("isolated clear", "global clear");
+			try {
+				ExecutionResults results = executeTestClass(ThreadIsolatedTestCases.class,
+					singletonMap(SystemPropertyExtension.ISOLATE_THREADS_PARAMETER, "true"));
+
+				assertThat(results).hasNumberOfSucceededTests(1);
+				assertThat(System.getProperties()).isNotInstanceOf(ThreadIsolatedProperties.class);
+				assertThat(System.getProperty("isolated set")).isEqualTo("global set");
+				assertThat(System.getProperty("isolated clear")).isEqualTo("global clear");
+			}
+			finally {
+				System.clearProperty("isolated set");
+				System.clearProperty("isolated clear");
+			}
+		}
+
+		@Test
+		@WritesSystemProperty
+		@DisplayName("should keep global changes made while threads were isolated")
+		void shouldKeepGlobalChanges() {
+			try {
+				ExecutionResults results = executeTestClass(GlobalChangeTestCases.class,
+					singletonMap(SystemPropertyExtension.ISOLATE_THREADS_PARAMETER, "true"));
+
+				assertThat(results).hasNumberOfSucceededTests(1);
+				assertThat(System.getProperty("isolated global change")).isEqualTo("changed");
+			}
+			finally {
+				System.clearProperty("isolated global change");
+			}
+		}
+
+		@Test
+		@WritesSystemProperty
+		@DisplayName("should not let threads inherit class-level properties or keep them after the test")
+		void shouldNotLeakPropertiesToLongLivedThreads() {
+			ExecutionResults results = executeTestClass(ClassLevelThreadIsolatedTestCases.class,
+				singletonMap(SystemPropertyExtension.ISOLATE_THREADS_PARAMETER, "true"));
+
+			assertThat(results).hasNumberOfSucceededTests(2);
+			assertThat(results).hasNumberOfFailedContainers(0);
+			assertThat(ClassLevelThreadIsolatedTestCases.VALUE_AFTER_TEST).hasValue(null);
+		}
+
+		@Test
+		@WritesSystemProperty
+		@DisplayName("should let tests that set the same property to different values run concurrently")
+		void shouldRunTestsSettingSamePropertyConcurrently() {
+			Map<String, String> configuration = new HashMap<>();
+			configuration.put(SystemPropertyExtension.ISOLATE_THREADS_PARAMETER, "true");
+			configuration.put("junit.jupiter.execution.parallel.enabled", "true");
+			configuration.put("junit.jupiter.execution.parallel.mode.default", "concurrent");
+			configuration.put("junit.jupiter.execution.parallel.config.strategy", "fixed");
+			configuration.put("junit.jupiter.execution.parallel.config.fixed.parallelism", "2");
+
+			ExecutionResults results = executeTestClass(ConcurrentlyIsolatedTestCases.class, configuration);
+
+			assertThat(results).hasNumberOfSucceededTests(2);
+			assertThat(System.getProperty("isolated concurrently")).isNull();
+		}
+
+		@Test
+		@DisplayName("should fail isolated annotations if threads are not isolated")
+		void shouldFailIsolatedAnnotationsWithoutIsolatedThreads() {
+			ExecutionResults results = executeTestClass(ConcurrentlyIsolatedTestCases.class);
+
+			assertThat(results)
+					.hasNumberOfFailedTests(2)
+					.withExceptionInstancesOf(ExtensionConfigurationException.class);
+		}
+
+	}
+
+	static class ConcurrentlyIsolatedTestCases {
+
+		// each test only finishes once the other one set its property, so they need to run at the same time
+		private static final CountDownLatch BOTH_SET = new CountDownLatch(2);
+
+		@Test
+		@SetIsolatedSystemProperty(key = "isolated concurrently", value = "first")
+		void first() throws Exception {
+			awaitOtherAndAssertValue("first");
+		}
+
+		@Test
+		@SetIsolatedSystemProperty(key = "isolated concurrently", value = "second")
+		@ClearIsolatedSystemProperty(key = "java.version")
+		void second() throws Exception {
+			awaitOtherAndAssertValue("second");
+			// map-like access sees the thread's properties, too
+			assertThat(System.getProperties().get("java.version")).isNull();
+			assertThat(System.getProperties().containsKey("java.version")).isFalse();
+			assertThat(System.getProperties().stringPropertyNames()).doesNotContain("java.version");
+			assertThat(System.getProperties().entrySet())
+					.extracting(Map.Entry::getKey)
+					.contains("isolated concurrently")
+					.doesNotContain("java.version");
+		}
+
+		private static void awaitOtherAndAssertValue(String value) throws InterruptedException {
+			BOTH_SET.countDown();
+			if (!BOTH_SET.await(10, TimeUnit.SECONDS))
+				throw new IllegalStateException("Tests did not run concurrently");
+			assertThat(System.getProperty("isolated concurrently")).isEqualTo(value);
+			assertThat(System.getProperties().get("isolated concurrently")).isEqualTo(value);
+			assertThat(System.getProperties().containsKey("isolated concurrently")).isTrue();
+		}
+
+	}
+
+	static class ThreadIsolatedTestCases {
+
+		private static ExecutorService otherThread;
+
+		@BeforeAll
+		static void startOtherThread() throws Exception {
+			otherThread = Executors.newSingleThreadExecutor();
+			// start the thread before the test changes any properties
+			otherThread.submit(() -> null).get();
+		}
+
+		@AfterAll
+		static void stopOtherThread() {
+			otherThread.shutdownNow();
+		}
+
+		@Test
+		@SetSystemProperty(key = "isolated set", value = "isolated")
+		@ClearSystemProperty(key = "isolated clear")
+		void changeSystemProperties() throws Exception {
+			assertThat(System.getProperties()).isInstanceOf(ThreadIsolatedProperties.class);
+			assertThat(System.getProperty("isolated set")).isEqualTo("isolated");
+			assertThat(System.getProperty("isolated clear")).isNull();
+
+			assertThat(otherThread.submit(() -> System.getProperty("isolated set")).get()).isEqualTo("global set");
+			assertThat(otherThread.submit(() -> System.getProperty("isolated clear")).get())
+					.isEqualTo("global clear");
+
+			AtomicReference<String> childThreadValue = new AtomicReference<>();
+			Thread childThread = new Thread(() -> childThreadValue.set(System.getProperty("isolated set")));
+			childThread.start();
+			childThread.join();
+			assertThat(childThreadValue).hasValue("isolated");
+		}
+
+	}
+
+	@SetSystemProperty(key = "isolated class", value = "class")
+	static class ClassLevelThreadIsolatedTestCases {
+
+		static final AtomicReference<String> VALUE_AFTER_TEST = new AtomicReference<>("unset");
+
+		private static ExecutorService classThread;
+		private static ExecutorService testThread;
+
+		@BeforeAll
+		static void startClassThread() throws Exception {
+			// like the threads of JUnit's pool that the class's thread creates to run tests (of other classes, too)
+			classThread = Executors.newSingleThreadExecutor();
+			classThread.submit(() -> null).get();
+		}
+
+		@AfterAll
+		static void stopThreads() throws Exception {
+			VALUE_AFTER_TEST.set(testThread.submit(() -> System.getProperty("isolated class")).get());
+			classThread.shutdownNow();
+			testThread.shutdownNow();
+		}
+
+		@Test
+		void threadStartedByClassDoesNotInherit() throws Exception {
+			assertThat(System.getProperty("isolated class")).isEqualTo("class");
+			assertThat(classThread.submit(() -> System.getProperty("isolated class")).get()).isNull();
+		}
+
+		@Test
+		void threadStartedByTestInheritsUntilTestEnds() throws Exception {
+			testThread = Executors.newSingleThreadExecutor();
+			assertThat(testThread.submit(() -> System.getProperty("isolated class")).get()).isEqualTo("class");
+		}
+
+	}
+
+	static class GlobalChangeTestCases {
+
+		@Test
+		@SetSystemProperty(key = "isolated set", value = "isolated")
+		void changeGlobalSystemProperty() {
+			// `put` isn't isolated, so this changes the global properties
+			System.getProperties().put("isolated global change", "changed");
+		}
+
+	}
+
 	@Nested
 	@DisplayName("used with incorrect configuration")
 	class ConfigurationFailureTests {
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("InterProcessDirectory")
+class InterProcessDirectoryTests {
+
+	@Test
+	@DisplayName("populates the directory once and deletes it when the last lease is returned")
+	void populatesOnceAndDeletesAfterLastLease(@New(TemporaryDirectory.class) Path leaseDirectory) throws Exception {
+		CountingDirectory factory = new CountingDirectory(leaseDirectory);
+
+		Resource<Path> first = factory.create(Collections.emptyList());
+		Resource<Path> second = factory.create(Collections.emptyList());
+
+		assertThat(factory.populations).hasValue(1);
+		assertThat(first.get()).isEqualTo(second.get());
+		assertThat(first.get().resolve("fixture.txt")).hasContent("populated");
+
+		first.close();
+		assertThat(second.get().resolve("fixture.txt")).exists();
+		second.close();
+		assertThat(second.get()).doesNotExist();
+	}
+
+	@Test
+	@DisplayName("populates the directory again after all leases were returned")
+	void populatesAgainAfterAllLeasesWereReturned(@New(TemporaryDirectory.class) Path leaseDirectory)
+			throws Exception {
+		CountingDirectory factory = new CountingDirectory(leaseDirectory);
+
+		factory.create(Collections.emptyList()).close();
+		Resource<Path> resource = factory.create(Collections.emptyList());
+
+		assertThat(factory.populations).hasValue(2);
+		assertThat(resource.get().resolve("fixture.txt")).exists();
+		resource.close();
+	}
+
+	@Test
+	@DisplayName("cleans up and retries if populating the directory fails")
+	void retriesIfPopulatingFails(@New(TemporaryDirectory.class) Path leaseDirectory) throws Exception {
+		CountingDirectory failing = new CountingDirectory(leaseDirectory) {
+
+			@Override
+			protected void populate(Path directory) throws IOException {
+				Files.write(directory.resolve("half-done.txt"), "oops".getBytes(UTF_8));
+				throw new IOException("Populating failed");
+			}
+
+		};
+		CountingDirectory working = new CountingDirectory(leaseDirectory);
+
+		assertThatThrownBy(() -> failing.create(Collections.emptyList())).hasMessage("Populating failed");
+		Resource<Path> resource = working.create(Collections.emptyList());
+
+		assertThat(resource.get().resolve("half-done.txt")).doesNotExist();
+		assertThat(resource.get().resolve("fixture.txt")).exists();
+		resource.close();
+	}
+
+	@Test
+	@DisplayName("populates the directory again if it was left behind by a crashed JVM")
+	void populatesAgainAfterCrash(@New(TemporaryDirectory.class) Path leaseDirectory) throws Exception {
+		Path staleLease = leaveBehindCrashedLease(leaseDirectory);
+		CountingDirectory factory = new CountingDirectory(leaseDirectory);
+
+		Resource<Path> resource = factory.create(Collections.emptyList());
+
+		assertThat(factory.populations).hasValue(1);
+		assertThat(resource.get().resolve("fixture.txt")).hasContent("populated");
+		assertThat(staleLease).doesNotExist();
+		resource.close();
+		assertThat(resource.get()).doesNotExist();
+	}
+
+	@Test
+	@DisplayName("deletes the directory if only crashed JVMs hold leases on it")
+	void deletesDirectoryDespiteCrashedLeases(@New(TemporaryDirectory.class) Path leaseDirectory)
+			throws Exception {
+		CountingDirectory factory = new CountingDirectory(leaseDirectory);
+		Resource<Path> resource = factory.create(Collections.emptyList());
+		Path staleLease = leaveBehindCrashedLease(leaseDirectory);
+
+		resource.close();
+
+		assertThat(staleLease).doesNotExist();
+		assertThat(resource.get()).doesNotExist();
+	}
+
+	@Test
+	@DisplayName("rejects arguments")
+	void rejectsArguments(@New(TemporaryDirectory.class) Path leaseDirectory) {
+		CountingDirectory factory = new CountingDirectory(leaseDirectory);
+
+		assertThatThrownBy(() -> factory.create(Collections.singletonList("argument")))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Expected no arguments, but got 1");
+	}
+
+	@Test
+	@DisplayName("shares the directory with another JVM")
+	void sharesDirectoryWithAnotherJvm(@New(TemporaryDirectory.class) Path leaseDirectory) throws Exception {
+		// on the module path, the forked JVM's class path would be incomplete
+		assumeTrue(System.getProperty("jdk.module.path") == null, "Tests don't run on the class path");
+		Process otherJvm = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+			"-cp", System.getProperty("java.class.path"), OtherJvm.class.getName(), leaseDirectory.toString())
+					.redirectErrorStream(true)
+					.start();
+		try {
+			BufferedReader otherJvmOutput = new BufferedReader(new InputStreamReader(otherJvm.getInputStream(), UTF_8));
+			assertThat(otherJvmOutput.readLine()).isEqualTo(OtherJvm.LEASED);
+
+			CountingDirectory factory = new CountingDirectory(leaseDirectory);
+			Resource<Path> resource = factory.create(Collections.emptyList());
+			assertThat(factory.populations).hasValue(0);
+			assertThat(resource.get().resolve("fixture.txt")).hasContent("populated by other JVM");
+			resource.close();
+			assertThat(resource.get()).exists();
+
+			// tell the other JVM to return its lease
+			OutputStream otherJvmInput = otherJvm.getOutputStream();
+			otherJvmInput.write(System.lineSeparator().getBytes(UTF_8));
+			otherJvmInput.flush();
+			assertThat(otherJvm.waitFor(30, TimeUnit.SECONDS)).isTrue();
+			assertThat(otherJvm.exitValue()).isZero();
+			assertThat(resource.get()).doesNotExist();
+		}
+		finally {
+			otherJvm.destroyForcibly();
+		}
+	}
+
+	/**
+	 * Leaves behind what a JVM that crashed while holding a lease would: a populated directory
+	 * and a lease file that nobody holds a lock on.
+	 */
+	private static Path leaveBehindCrashedLease(Path leaseDirectory) throws IOException {
+		Files.createDirectories(leaseDirectory.resolve("content"));
+		Files.write(leaseDirectory.resolve("content").resolve("fixture.txt"), "crashed".getBytes(UTF_8));
+		Files.write(leaseDirectory.resolve("ready"), new byte[0]);
+		return Files.createFile(Files.createDirectories(leaseDirectory.resolve("leases")).resolve("crashed"));
+	}
+
+	static class CountingDirectory extends InterProcessDirectory {
+
+		final AtomicInteger populations = new AtomicInteger();
+		private final Path leaseDirectory;
+		private final String content;
+
+		CountingDirectory(Path leaseDirectory) {
+			this(leaseDirectory, "populated");
+		}
+
+		CountingDirectory(Path leaseDirectory, String content) {
+			this.leaseDirectory = leaseDirectory;
+			this.content = content;
+		}
+
+		@Override
+		protected Path leaseDirectory() {
+			return leaseDirectory;
+		}
+
+		@Override
+		protected void populate(Path directory) throws IOException {
+			populations.incrementAndGet();
+			Files.write(directory.resolve("fixture.txt"), content.getBytes(UTF_8));
+		}
+
+	}
+
+	/**
+	 * Takes a lease in the lease directory given as first argument, prints {@link #LEASED},
+	 * and returns the lease once it reads a line from {@code System.in}.
+	 */
+	public static class OtherJvm {
+
+		static final String LEASED = "leased";
+
+		public static void main(String[] args) throws Exception {
+			Resource<Path> resource = new CountingDirectory(Paths.get(args[0]), "populated by other JVM")
+					.create(Collections.emptyList());
+			System.out.println(LEASED);
+			System.out.flush();
+			new BufferedReader(new InputStreamReader(System.in, UTF_8)).readLine();
+			resource.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+class ResourceCloserTests {
+
+	@Test
+	void sequentialCloserClosesGroupsInReverseOrderOfRegistration() throws Throwable {
+		List<String> closed = new CopyOnWriteArrayList<>();
+		ResourceCloser closer = new ResourceCloser(1, Duration.ZERO);
+		closer.register(() -> closed.add("first resource"), () -> closed.add("first factory"));
+		closer.register(() -> closed.add("second resource"), () -> closed.add("second factory"));
+
+		closer.close();
+
+		assertThat(closed).containsExactly("second resource", "second factory", "first resource", "first factory");
+	}
+
+	@Test
+	void parallelCloserClosesGroupsConcurrently() throws Throwable {
+		// each resource only finishes closing once the other one started closing,
+		// which (barring the timeout) only works if they're closed concurrently
+		CountDownLatch bothClosing = new CountDownLatch(2);
+		ResourceCloser closer = new ResourceCloser(2, Duration.ofSeconds(10));
+		closer.register(() -> awaitOther(bothClosing));
+		closer.register(() -> awaitOther(bothClosing));
+
+		closer.close();
+
+		assertThat(bothClosing.getCount()).isZero();
+	}
+
+	@Test
+	void parallelCloserClosesEachGroupInOrder() throws Throwable {
+		List<String> closed = new CopyOnWriteArrayList<>();
+		ResourceCloser closer = new ResourceCloser(4, Duration.ZERO);
+		closer.register(() -> closed.add("first resource"), () -> closed.add("first factory"));
+		closer.register(() -> closed.add("second resource"), () -> closed.add("second factory"));
+
+		closer.close();
+
+		assertThat(closed)
+				.hasSize(4)
+				.containsSubsequence("first resource", "first factory")
+				.containsSubsequence("second resource", "second factory");
+	}
+
+	@Test
+	void closerClosesAllResourcesAndThrowsFirstExceptionWithOthersSuppressed() {
+		List<String> closed = new CopyOnWriteArrayList<>();
+		ResourceCloser closer = new ResourceCloser(1, Duration.ZERO);
+		closer.register(() -> {
+			throw new IOException("first");
+		}, () -> closed.add("first factory"));
+		closer.register(() -> {
+			throw new IllegalStateException("second");
+		});
+
+		assertThatThrownBy(closer::close)
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("second")
+				.satisfies(ex -> assertThat(ex.getSuppressed())
+						.singleElement()
+						.isInstanceOf(IOException.class)
+						.extracting(Throwable::getMessage)
+						.isEqualTo("first"));
+		assertThat(closed).containsExactly("first factory");
+	}
+
+	@Test
+	void closerWithTimeoutGivesUpOnSlowResources() {
+		ResourceCloser closer = new ResourceCloser(1, Duration.ofMillis(50));
+		closer.register(() -> Thread.sleep(TimeUnit.SECONDS.toMillis(10)));
+
+		assertThatThrownBy(closer::close).isInstanceOf(TimeoutException.class).hasMessageContaining("PT0.05S");
+	}
+
+	@Test
+	void closerWithTimeoutClosesGroupsQueuedBehindSlowOnes() {
+		List<String> closed = new CopyOnWriteArrayList<>();
+		ResourceCloser closer = new ResourceCloser(1, Duration.ofMillis(50));
+		// groups are closed in reverse order, so this one waits for the slow one
+		closer.register(() -> closed.add("queued resource"));
+		closer.register(() -> Thread.sleep(TimeUnit.SECONDS.toMillis(10)));
+
+		assertThatThrownBy(closer::close)
+				.isInstanceOf(TimeoutException.class)
+				.satisfies(ex -> assertThat(ex.getSuppressed()).isEmpty());
+		assertThat(closed).containsExactly("queued resource");
+	}
+
+	@Test
+	void closerWithTimeoutGivesUpOnParallelGroupsAfterOneTimeout() {
+		ResourceCloser closer = new ResourceCloser(3, Duration.ofSeconds(1));
+		for (int i = 0; i < 3; i++)
+			closer.register(() -> Thread.sleep(TimeUnit.SECONDS.toMillis(10)));
+
+		long start = System.nanoTime();
+		assertThatThrownBy(closer::close)
+				.isInstanceOf(TimeoutException.class)
+				.satisfies(ex -> assertThat(ex.getSuppressed()).hasSize(2));
+		// waiting for each group's timeout one after another would take three seconds
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(2500));
+	}
+
+	@Test
+	void closerRejectsInvalidConfiguration() {
+		assertThatThrownBy(() -> new ResourceCloser(0, Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new ResourceCloser(1, Duration.ofMillis(-1)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static void awaitOther(CountDownLatch bothClosing) throws InterruptedException {
+		bothClosing.countDown();
+		if (!bothClosing.await(5, TimeUnit.SECONDS))
+			throw new IllegalStateException("Resources were not closed concurrently");
+	}
+
+}
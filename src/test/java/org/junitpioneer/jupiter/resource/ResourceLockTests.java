@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class ResourceLockTests {
+
+	private final ResourceMetricsRecorder.Recording recording = new ResourceMetricsRecorder().recordingFor("lock");
+
+	@Test
+	void grantsLockInOrderOfRequests() throws InterruptedException {
+		ResourceLock lock = new ResourceLock();
+		List<Integer> acquisitions = new CopyOnWriteArrayList<>();
+		List<Thread> waiters = new ArrayList<>();
+
+		lock.acquire(recording);
+		for (int i = 0; i < 5; i++) {
+			int waiter = i;
+			Thread thread = new Thread(() -> {
+				lock.acquire(recording);
+				acquisitions.add(waiter);
+				lock.release();
+			});
+			thread.start();
+			awaitParked(thread);
+			waiters.add(thread);
+		}
+		lock.release();
+		for (Thread waiter : waiters) {
+			waiter.join(TimeUnit.SECONDS.toMillis(10));
+		}
+
+		assertThat(acquisitions).containsExactly(0, 1, 2, 3, 4);
+	}
+
+	@Test
+	void recordsWaitersThatWereQueuedAhead() throws InterruptedException {
+		ResourceLock lock = new ResourceLock();
+
+		lock.acquire(recording);
+		Thread first = new Thread(() -> {
+			lock.acquire(recording);
+			lock.release();
+		});
+		first.start();
+		awaitParked(first);
+		Thread second = new Thread(() -> {
+			lock.acquire(recording);
+			lock.release();
+		});
+		second.start();
+		awaitParked(second);
+		lock.release();
+		first.join(TimeUnit.SECONDS.toMillis(10));
+		second.join(TimeUnit.SECONDS.toMillis(10));
+
+		ResourceMetrics metrics = recording.toMetrics();
+		assertThat(metrics.lockWait().count()).isEqualTo(3);
+		assertThat(metrics.peakLockWaiters()).isEqualTo(2);
+	}
+
+	@Test
+	void keepsThousandsOfContendingInvocationsApart() throws InterruptedException {
+		int resourceCount = 3;
+		List<ResourceLock> locks = new ArrayList<>();
+		List<AtomicBoolean> inUse = new ArrayList<>();
+		for (int i = 0; i < resourceCount; i++) {
+			locks.add(new ResourceLock());
+			inUse.add(new AtomicBoolean());
+		}
+		AtomicInteger collisions = new AtomicInteger();
+		AtomicInteger finished = new AtomicInteger();
+
+		ExecutorService executor = Executors.newFixedThreadPool(64);
+		int invocations = 5_000;
+		for (int i = 0; i < invocations; i++) {
+			// like the extension does, acquire the locks in a fixed order
+			int first = i % resourceCount;
+			int second = (i + 1) % resourceCount;
+			List<Integer> resources = new ArrayList<>();
+			resources.add(Math.min(first, second));
+			resources.add(Math.max(first, second));
+			executor.execute(() -> {
+				resources.forEach(resource -> locks.get(resource).acquire(recording));
+				try {
+					resources.forEach(resource -> {
+						if (!inUse.get(resource).compareAndSet(false, true))
+							collisions.incrementAndGet();
+					});
+					resources.forEach(resource -> inUse.get(resource).set(false));
+				}
+				finally {
+					resources.forEach(resource -> locks.get(resource).release());
+				}
+				finished.incrementAndGet();
+			});
+		}
+		executor.shutdown();
+
+		assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+		assertThat(finished).hasValue(invocations);
+		assertThat(collisions).hasValue(0);
+	}
+
+	private static void awaitParked(Thread thread) throws InterruptedException {
+		while (thread.getState() != Thread.State.WAITING) {
+			Thread.sleep(1);
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junitpioneer.testkit.assertion.PioneerAssert.assertThat;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junitpioneer.testkit.ExecutionResults;
+import org.junitpioneer.testkit.PioneerTestKit;
+
+@DisplayName("Resources extension metrics")
+class ResourceMetricsTests {
+
+	@DisplayName("when tests use new and shared resources")
+	@Nested
+	class WhenTestsUseNewAndSharedResourcesTests {
+
+		@DisplayName("then the metrics of the shared resource are passed to listeners")
+		@Test
+		void thenMetricsOfSharedResourceArePassedToListeners() {
+			ExecutionResults executionResults = PioneerTestKit.executeTestClass(MetricsTestCases.class);
+			assertThat(executionResults).hasNumberOfSucceededTests(2);
+
+			assertThat(StoringResourceMetricsListener.METRICS)
+					.filteredOn(metrics -> metrics.name().equals(MetricsTestCases.SHARED_NAME))
+					// other tests in this class execute the same test cases, so there may be more than one
+					.isNotEmpty()
+					.allSatisfy(metrics -> {
+						assertThat(metrics.created()).isEqualTo(1);
+						assertThat(metrics.reused()).isEqualTo(1);
+						assertThat(metrics.closed()).isEqualTo(1);
+						assertThat(metrics.retrieval().count()).isEqualTo(2);
+						assertThat(metrics.lockWait().count()).isEqualTo(2);
+					});
+		}
+
+		@DisplayName("then no report entries are published by default")
+		@Test
+		void thenNoReportEntriesArePublishedByDefault() {
+			ExecutionResults executionResults = PioneerTestKit.executeTestClass(MetricsTestCases.class);
+
+			assertThat(executionResults).hasNumberOfReportEntries(0);
+		}
+
+		@DisplayName("and reporting lock waits is enabled, then each test publishes how long it waited")
+		@Test
+		void andReportingLockWaitsIsEnabled_thenEachTestPublishesHowLongItWaited() {
+			ExecutionResults executionResults = PioneerTestKit
+					.executeTestClass(MetricsTestCases.class,
+						singletonMap(ResourceExtension.REPORT_LOCK_WAIT_PARAMETER, "true"));
+
+			assertThat(executionResults).hasNumberOfReportEntries(2).andThen((key, value) -> {
+				assertThat(key).isEqualTo(ResourceExtension.REPORT_ENTRY_KEY);
+				assertThat(value)
+						.matches("Waited \\[\\d+] ms for the shared resources \\[" + MetricsTestCases.SHARED_NAME + "]");
+			});
+		}
+
+	}
+
+	static class MetricsTestCases {
+
+		static final String SHARED_NAME = "resource-metrics-tests";
+
+		@Test
+		void firstTest(@Shared(factory = TemporaryDirectory.class, name = SHARED_NAME) Path sharedTempDir,
+				@New(TemporaryDirectory.class) Path newTempDir) {
+		}
+
+		@Test
+		void secondTest(@Shared(factory = TemporaryDirectory.class, name = SHARED_NAME) Path sharedTempDir) {
+		}
+
+	}
+
+}
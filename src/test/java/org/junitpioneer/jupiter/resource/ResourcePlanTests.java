@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+class ResourcePlanTests {
+
+	@Test
+	void sortsSharedAnnotationsByName() throws NoSuchMethodException {
+		ResourcePlan plan = ResourcePlan.of(method("sharedResources"));
+
+		assertThat(plan.sortedShared()).extracting(Shared::name).containsExactly("a", "b", "b", "c");
+	}
+
+	@Test
+	void countsParametersWithSameSharedAnnotation() throws NoSuchMethodException {
+		ResourcePlan plan = ResourcePlan.of(method("sharedResources"));
+
+		assertThat(plan.sameSharedCount(0)).isEqualTo(2);
+		assertThat(plan.sameSharedCount(1)).isEqualTo(1);
+		assertThat(plan.sameSharedCount(2)).isEqualTo(0);
+		assertThat(plan.sameSharedCount(3)).isEqualTo(2);
+		assertThat(plan.sameSharedCount(4)).isEqualTo(1);
+	}
+
+	@Test
+	void knowsWhetherExecutableUsesSharedResources() throws NoSuchMethodException {
+		assertThat(ResourcePlan.of(method("sharedResources")).usesShared()).isTrue();
+		assertThat(ResourcePlan.of(ResourcePlanTests.class.getDeclaredMethod("noSharedResources", Path.class))
+				.usesShared()).isFalse();
+	}
+
+	@Test
+	void cachesPlanPerExecutable() throws NoSuchMethodException {
+		assertThat(ResourcePlan.of(method("sharedResources"))).isSameAs(ResourcePlan.of(method("sharedResources")));
+	}
+
+	private static Method method(String name) throws NoSuchMethodException {
+		return ResourcePlanTests.class.getDeclaredMethod(name, Path.class, Path.class, Path.class, Path.class, Path.class);
+	}
+
+	@SuppressWarnings("unused")
+	void sharedResources(@Shared(factory = TemporaryDirectory.class, name = "b") Path b1,
+			@Shared(factory = TemporaryDirectory.class, name = "c") Path c, @New(TemporaryDirectory.class) Path n,
+			@Shared(factory = TemporaryDirectory.class, name = "b") Path b2,
+			@Shared(factory = TemporaryDirectory.class, name = "a") Path a) {
+	}
+
+	@SuppressWarnings("unused")
+	void noSharedResources(@New(TemporaryDirectory.class) Path n) {
+	}
+
+}
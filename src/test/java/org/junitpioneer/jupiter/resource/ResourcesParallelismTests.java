@@ -21,6 +21,7 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
@@ -31,6 +32,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 import org.junit.jupiter.api.TestInfo;
@@ -135,6 +137,16 @@ class ResourcesParallelismTests {
 			assertThat(executionResults).hasNumberOfSucceededTests(3);
 		}
 
+		@DisplayName("then many tests that contend for the same few resources all finish")
+		@Execution(SAME_THREAD)
+		@Test
+		void thenManyContendingTestsAllFinish() {
+			ExecutionResults executionResults = assertTimeoutPreemptively(Duration.ofSeconds(60),
+				() -> PioneerTestKit.executeTestClass(ContendingTestsTestCases.class),
+				"The tests in ContendingTestsTestCases became deadlocked!");
+			assertThat(executionResults).hasNumberOfSucceededTests(3 * CONTENDING_REPETITIONS);
+		}
+
 	}
 
 	private static final AtomicInteger COUNTER = new AtomicInteger(0);
@@ -484,6 +496,55 @@ class ResourcesParallelismTests {
 
 	}
 
+	private static final int CONTENDING_REPETITIONS = 20;
+	private static final AtomicBoolean RESOURCE_A_IN_USE = new AtomicBoolean();
+	private static final AtomicBoolean RESOURCE_B_IN_USE = new AtomicBoolean();
+	private static final AtomicBoolean RESOURCE_C_IN_USE = new AtomicBoolean();
+
+	static class ContendingTestsTestCases {
+
+		@RepeatedTest(CONTENDING_REPETITIONS)
+		void test1(
+				@SuppressWarnings("unused") @Shared(factory = TemporaryDirectory.class, name = SHARED_RESOURCE_A_NAME) Path directoryA,
+				@SuppressWarnings("unused") @Shared(factory = TemporaryDirectory.class, name = SHARED_RESOURCE_B_NAME) Path directoryB) {
+			failIfInUse(RESOURCE_A_IN_USE, RESOURCE_B_IN_USE);
+		}
+
+		@RepeatedTest(CONTENDING_REPETITIONS)
+		void test2(
+				@SuppressWarnings("unused") @Shared(factory = TemporaryDirectory.class, name = SHARED_RESOURCE_B_NAME) Path directoryB,
+				@SuppressWarnings("unused") @Shared(factory = TemporaryDirectory.class, name = SHARED_RESOURCE_C_NAME) Path directoryC) {
+			failIfInUse(RESOURCE_B_IN_USE, RESOURCE_C_IN_USE);
+		}
+
+		@RepeatedTest(CONTENDING_REPETITIONS)
+		void test3(
+				@SuppressWarnings("unused") @Shared(factory = TemporaryDirectory.class, name = SHARED_RESOURCE_C_NAME) Path directoryC,
+				@SuppressWarnings("unused") @Shared(factory = TemporaryDirectory.class, name = SHARED_RESOURCE_A_NAME) Path directoryA) {
+			failIfInUse(RESOURCE_C_IN_USE, RESOURCE_A_IN_USE);
+		}
+
+	}
+
+	// this method fails if another test uses one of the resources at the same time
+	private static void failIfInUse(AtomicBoolean first, AtomicBoolean second) {
+		boolean firstAcquired = first.compareAndSet(false, true);
+		boolean secondAcquired = false;
+		try {
+			assertThat(firstAcquired).isTrue();
+			secondAcquired = second.compareAndSet(false, true);
+			assertThat(secondAcquired).isTrue();
+			Thread.yield();
+		}
+		finally {
+			// only reset the flags this test set, so a failure doesn't make the tests after it fail, too
+			if (firstAcquired)
+				first.set(false);
+			if (secondAcquired)
+				second.set(false);
+		}
+	}
+
 	// this method is written to fail if it is executed at overlapping times in different threads
 	private static void failIfExecutedInParallel(String testName) throws InterruptedException {
 		try {
@@ -25,10 +25,17 @@ import java.lang.reflect.Method;
 import java.net.UnknownHostException;
 import java.nio.file.FileAlreadyExistsException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.ParameterResolutionException;
 import org.junitpioneer.testkit.ExecutionResults;
 import org.junitpioneer.testkit.PioneerTestKit;
@@ -920,4 +927,352 @@ class ResourcesTests {
 
 	}
 
+	// ---
+
+	@DisplayName("when a shared resource has the test class scope")
+	@Nested
+	class WhenSharedResourceHasTestClassScopeTests {
+
+		@DisplayName("then each nested class gets its own resource")
+		@Test
+		void thenEachNestedClassGetsItsOwnResource() {
+			ExecutionResults executionResults = PioneerTestKit.executeTestClass(TestClassScopedTestCases.class);
+			assertThat(executionResults).hasNumberOfSucceededTests(3);
+			assertThat(TestClassScopedResourceFactory.CREATE_CALLS).hasValue(2);
+			assertThat(TestClassScopedResourceFactory.CLOSE_CALLS).hasValue(2);
+		}
+
+	}
+
+	static class TestClassScopedTestCases {
+
+		@Test
+		@SuppressWarnings("unused")
+		void test_1(@Shared(factory = TestClassScopedResourceFactory.class, name = "class-scoped",
+				scope = Shared.Scope.TEST_CLASS) Object object) {
+
+		}
+
+		@Test
+		@SuppressWarnings("unused")
+		void test_2(@Shared(factory = TestClassScopedResourceFactory.class, name = "class-scoped",
+				scope = Shared.Scope.TEST_CLASS) Object object) {
+
+		}
+
+		@Nested
+		class NestedTestCases {
+
+			@Test
+			@SuppressWarnings("unused")
+			void test(@Shared(factory = TestClassScopedResourceFactory.class, name = "class-scoped",
+					scope = Shared.Scope.TEST_CLASS) Object object) {
+
+			}
+
+		}
+
+	}
+
+	static final class TestClassScopedResourceFactory implements ResourceFactory<Object> {
+
+		static final AtomicInteger CREATE_CALLS = new AtomicInteger();
+		static final AtomicInteger CLOSE_CALLS = new AtomicInteger();
+
+		@Override
+		public Resource<Object> create(List<String> arguments) {
+			CREATE_CALLS.incrementAndGet();
+			return new ClosingCountingResource(CLOSE_CALLS);
+		}
+
+	}
+
+	// ---
+
+	@DisplayName("when a shared resource is reference counted")
+	@Nested
+	class WhenSharedResourceIsReferenceCountedTests {
+
+		@DisplayName("then it is closed after the last test that declares it")
+		@Test
+		void thenItIsClosedAfterLastDeclaringTest() {
+			ExecutionResults executionResults = PioneerTestKit.executeTestClass(ReferenceCountedTestCases.class);
+			assertThat(executionResults).hasNumberOfSucceededTests(3);
+			assertThat(ReferenceCountedResourceFactory.CREATE_CALLS).hasValue(1);
+			assertThat(ReferenceCountedResourceFactory.CLOSE_CALLS).hasValue(1);
+		}
+
+		@DisplayName("and tests that declare it are disabled")
+		@Nested
+		class AndDeclaringTestsAreDisabledTests {
+
+			@DisplayName("then it is closed after the last test that runs")
+			@Test
+			void thenItIsClosedAfterLastRunningTest() {
+				ExecutionResults executionResults = PioneerTestKit
+						.executeTestClass(ReferenceCountedWithDisabledTestCases.class);
+				assertThat(executionResults).hasNumberOfSucceededTests(2);
+				assertThat(executionResults).hasNumberOfSkippedTests(2);
+				assertThat(ReferenceCountedWithDisabledResourceFactory.CLOSE_CALLS).hasValue(1);
+			}
+
+		}
+
+		@DisplayName("and tests that declare it are filtered out")
+		@Nested
+		class AndDeclaringTestsAreFilteredOutTests {
+
+			@DisplayName("then it is closed when their class ends")
+			@Test
+			void thenItIsClosedWhenTheirClassEnds() {
+				ExecutionResults executionResults = PioneerTestKit
+						.executeNestedTestMethodWithParameterTypes(
+							asList(ReferenceCountedWithFilteredTestCases.class),
+							ReferenceCountedWithFilteredTestCases.NestedTestCases.class, "test_1", Object.class);
+				assertThat(executionResults).hasSingleSucceededTest();
+				// the outer class checks that the resource was closed before its scope ended
+				assertThat(executionResults).hasNumberOfFailedContainers(0);
+				assertThat(ReferenceCountedWithFilteredResourceFactory.CLOSE_CALLS).hasValue(1);
+			}
+
+		}
+
+		@DisplayName("and a lifecycle method declares it")
+		@Nested
+		class AndLifecycleMethodDeclaresItTests {
+
+			@DisplayName("then it is closed when its scope ends")
+			@Test
+			void thenItIsClosedWhenScopeEnds() {
+				ExecutionResults executionResults = PioneerTestKit
+						.executeTestClass(ReferenceCountedInLifecycleMethodTestCases.class);
+				assertThat(executionResults).hasNumberOfSucceededTests(2);
+				assertThat(ReferenceCountedInLifecycleMethodResourceFactory.CLOSE_CALLS).hasValue(1);
+			}
+
+		}
+
+		@DisplayName("and its scope is global")
+		@Nested
+		class AndScopeIsGlobalTests {
+
+			@DisplayName("then it throws an exception")
+			@Test
+			void thenItThrowsAnException() {
+				ExecutionResults executionResults = PioneerTestKit
+						.executeTestClass(ReferenceCountedGlobalTestCases.class);
+				executionResults
+						.allEvents()
+						.debug()
+						.assertThatEvents()
+						.haveExactly( //
+							1, //
+							finished( //
+								throwable( //
+									instanceOf(ParameterResolutionException.class), //
+									message("The @Shared resource with the name \"global-reference-counted\" is "
+											+ "reference counted, which is not supported for the global scope"))));
+			}
+
+		}
+
+	}
+
+	@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+	static class ReferenceCountedTestCases {
+
+		@Test
+		@Order(1)
+		@SuppressWarnings("unused")
+		void test_1(@Shared(factory = ReferenceCountedResourceFactory.class, name = "reference-counted",
+				referenceCounted = true) Object object) {
+			assertThat(ReferenceCountedResourceFactory.CLOSE_CALLS).hasValue(0);
+		}
+
+		@Test
+		@Order(2)
+		@SuppressWarnings("unused")
+		void test_2(@Shared(factory = ReferenceCountedResourceFactory.class, name = "reference-counted",
+				referenceCounted = true) Object object) {
+			assertThat(ReferenceCountedResourceFactory.CLOSE_CALLS).hasValue(0);
+		}
+
+		@Test
+		@Order(3)
+		void test_3() {
+			assertThat(ReferenceCountedResourceFactory.CLOSE_CALLS).hasValue(1);
+		}
+
+	}
+
+	static final class ReferenceCountedResourceFactory implements ResourceFactory<Object> {
+
+		static final AtomicInteger CREATE_CALLS = new AtomicInteger();
+		static final AtomicInteger CLOSE_CALLS = new AtomicInteger();
+
+		@Override
+		public Resource<Object> create(List<String> arguments) {
+			CREATE_CALLS.incrementAndGet();
+			return new ClosingCountingResource(CLOSE_CALLS);
+		}
+
+	}
+
+	@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+	static class ReferenceCountedWithDisabledTestCases {
+
+		@Test
+		@Order(1)
+		@Disabled("skipped before the resource is created")
+		@SuppressWarnings("unused")
+		void test_1(@Shared(factory = ReferenceCountedWithDisabledResourceFactory.class,
+				name = "reference-counted-with-disabled", referenceCounted = true) Object object) {
+
+		}
+
+		@Test
+		@Order(2)
+		@SuppressWarnings("unused")
+		void test_2(@Shared(factory = ReferenceCountedWithDisabledResourceFactory.class,
+				name = "reference-counted-with-disabled", referenceCounted = true) Object object) {
+			assertThat(ReferenceCountedWithDisabledResourceFactory.CLOSE_CALLS).hasValue(0);
+		}
+
+		@Test
+		@Order(3)
+		@Disabled("skipped after the resource is created")
+		@SuppressWarnings("unused")
+		void test_3(@Shared(factory = ReferenceCountedWithDisabledResourceFactory.class,
+				name = "reference-counted-with-disabled", referenceCounted = true) Object object) {
+
+		}
+
+		@Test
+		@Order(4)
+		void test_4() {
+			assertThat(ReferenceCountedWithDisabledResourceFactory.CLOSE_CALLS).hasValue(1);
+		}
+
+	}
+
+	static final class ReferenceCountedWithDisabledResourceFactory implements ResourceFactory<Object> {
+
+		static final AtomicInteger CLOSE_CALLS = new AtomicInteger();
+
+		@Override
+		public Resource<Object> create(List<String> arguments) {
+			return new ClosingCountingResource(CLOSE_CALLS);
+		}
+
+	}
+
+	static class ReferenceCountedWithFilteredTestCases {
+
+		@AfterAll
+		static void assertClosed() {
+			assertThat(ReferenceCountedWithFilteredResourceFactory.CLOSE_CALLS).hasValue(1);
+		}
+
+		@Nested
+		class NestedTestCases {
+
+			@Test
+			@SuppressWarnings("unused")
+			void test_1(@Shared(factory = ReferenceCountedWithFilteredResourceFactory.class,
+					name = "reference-counted-with-filtered", scope = Shared.Scope.SOURCE_FILE,
+					referenceCounted = true) Object object) {
+
+			}
+
+			@Test
+			@SuppressWarnings("unused")
+			void test_2(@Shared(factory = ReferenceCountedWithFilteredResourceFactory.class,
+					name = "reference-counted-with-filtered", scope = Shared.Scope.SOURCE_FILE,
+					referenceCounted = true) Object object) {
+
+			}
+
+		}
+
+	}
+
+	static final class ReferenceCountedWithFilteredResourceFactory implements ResourceFactory<Object> {
+
+		static final AtomicInteger CLOSE_CALLS = new AtomicInteger();
+
+		@Override
+		public Resource<Object> create(List<String> arguments) {
+			return new ClosingCountingResource(CLOSE_CALLS);
+		}
+
+	}
+
+	@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+	static class ReferenceCountedInLifecycleMethodTestCases {
+
+		@BeforeEach
+		@SuppressWarnings("unused")
+		void setUp(@Shared(factory = ReferenceCountedInLifecycleMethodResourceFactory.class,
+				name = "reference-counted-in-lifecycle", referenceCounted = true) Object object) {
+
+		}
+
+		@Test
+		@Order(1)
+		@SuppressWarnings("unused")
+		void test_1(@Shared(factory = ReferenceCountedInLifecycleMethodResourceFactory.class,
+				name = "reference-counted-in-lifecycle", referenceCounted = true) Object object) {
+
+		}
+
+		@Test
+		@Order(2)
+		void test_2() {
+			assertThat(ReferenceCountedInLifecycleMethodResourceFactory.CLOSE_CALLS).hasValue(0);
+		}
+
+	}
+
+	static final class ReferenceCountedInLifecycleMethodResourceFactory implements ResourceFactory<Object> {
+
+		static final AtomicInteger CLOSE_CALLS = new AtomicInteger();
+
+		@Override
+		public Resource<Object> create(List<String> arguments) {
+			return new ClosingCountingResource(CLOSE_CALLS);
+		}
+
+	}
+
+	static class ReferenceCountedGlobalTestCases {
+
+		@Test
+		@SuppressWarnings("unused")
+		void test(@Shared(factory = DummyResourceFactory.class, name = "global-reference-counted",
+				scope = Shared.Scope.GLOBAL, referenceCounted = true) Object object) {
+
+		}
+
+	}
+
+	static final class ClosingCountingResource implements Resource<Object> {
+
+		private final AtomicInteger closeCalls;
+
+		ClosingCountingResource(AtomicInteger closeCalls) {
+			this.closeCalls = closeCalls;
+		}
+
+		@Override
+		public Object get() {
+			return "some resource";
+		}
+
+		@Override
+		public void close() {
+			closeCalls.incrementAndGet();
+		}
+
+	}
+
 }
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2016-2022 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+
+package org.junitpioneer.jupiter.resource;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Simple service implementation for test usage of {@link ResourceMetricsListener}.
+ */
+public class StoringResourceMetricsListener implements ResourceMetricsListener {
+
+	// collected metrics are static to make them accessible for tests;
+	// since test runs happen in parallel, metrics are never cleared
+	static final List<ResourceMetrics> METRICS = new CopyOnWriteArrayList<>();
+
+	@Override
+	public void metricsCollected(List<ResourceMetrics> metrics) {
+		METRICS.addAll(metrics);
+	}
+
+}
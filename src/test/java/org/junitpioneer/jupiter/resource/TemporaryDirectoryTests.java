@@ -21,6 +21,8 @@ import static org.junitpioneer.jupiter.resource.Shared.Scope.GLOBAL;
 import static org.junitpioneer.jupiter.resource.Shared.Scope.SOURCE_FILE;
 import static org.junitpioneer.testkit.assertion.PioneerAssert.assertThat;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
@@ -38,6 +40,7 @@ import org.junitpioneer.testkit.PioneerTestKit;
 class TemporaryDirectoryTests {
 
 	static final Path ROOT_TEMP_DIR = Paths.get(System.getProperty("java.io.tmpdir"));
+	static final String TEMPLATE_RESOURCE = "org/junitpioneer/jupiter/resource/template";
 
 	@DisplayName("when a test class has a test method with a @New(TemporaryDirectory.class)-annotated parameter")
 	@Nested
@@ -245,7 +248,7 @@ class TemporaryDirectoryTests {
 								message("Unable to create a resource from `" + TemporaryDirectory.class.getTypeName()
 										+ "`"),
 								cause(instanceOf(IllegalArgumentException.class),
-									message("Expected 0 or 1 arguments, but got 2")))));
+									message("Expected 0, 1 or 2 arguments, but got 3")))));
 		}
 
 	}
@@ -253,7 +256,136 @@ class TemporaryDirectoryTests {
 	static class NewTempDirWithWrongNumberOfArgumentsTestCases {
 
 		@Test
-		void theTest(@New(value = TemporaryDirectory.class, arguments = { "1", "2" }) Path tempDir) {
+		void theTest(@New(value = TemporaryDirectory.class, arguments = { "1", "2", "3" }) Path tempDir) {
+			fail("We should not get this far.");
+		}
+
+	}
+
+	// ---
+
+	@DisplayName("when a test class has a test method with a parameter annotated with "
+			+ "@New(value = TemporaryDirectory.class, arguments = {\"prefix\", \"classpath:...\"}")
+	@Nested
+	class WhenTestClassHasTestMethodWithParameterAnnotatedWithNewTempDirWithTemplateTests {
+
+		@DisplayName("then the parameter is populated with a new temporary directory "
+				+ "that contains a copy of the template and is torn down afterwards")
+		@Test
+		void thenParameterIsPopulatedWithNewTempDirContainingCopyOfTemplate() {
+			ExecutionResults executionResults = PioneerTestKit
+					.executeTestClass(TwoTestMethodsWithNewTempDirFromTemplateTestCases.class);
+			assertThat(executionResults).hasNumberOfSucceededTests(2);
+			Assertions
+					.assertThat(TwoTestMethodsWithNewTempDirFromTemplateTestCases.recordedPaths)
+					.hasSize(2)
+					.doesNotHaveDuplicates()
+					.allSatisfy(path -> assertThat(path).doesNotExist());
+		}
+
+		@DisplayName("then changes to the temporary directory do not affect the template")
+		@Test
+		void thenChangesToTempDirDoNotAffectTemplate() throws Exception {
+			PioneerTestKit.executeTestClass(TwoTestMethodsWithNewTempDirFromTemplateTestCases.class);
+
+			Path template = Paths
+					.get(TemporaryDirectoryTests.class.getClassLoader().getResource(TEMPLATE_RESOURCE).toURI());
+			Assertions.assertThat(template.resolve("file.txt")).hasContent("top-level file");
+			Assertions.assertThat(template.resolve("nested/file.txt")).hasContent("nested file");
+		}
+
+		@DisplayName("and the template changes, then new temporary directories contain the changed template")
+		@Test
+		void andTemplateChanges_thenNewTempDirsContainChangedTemplate(@New(TemporaryDirectory.class) Path template)
+				throws Exception {
+			Files.write(template.resolve("file.txt"), "top-level file".getBytes(StandardCharsets.UTF_8));
+			Resource<Path> firstCopy = new TemporaryDirectory().create(asList("prefix", template.toString()));
+			Assertions.assertThat(firstCopy.get().resolve("file.txt")).hasContent("top-level file");
+			Assertions.assertThat(firstCopy.get().resolve("nested")).doesNotExist();
+			firstCopy.close();
+
+			Files.write(template.resolve("file.txt"), "changed".getBytes(StandardCharsets.UTF_8));
+			Files.createDirectory(template.resolve("nested"));
+			Files.write(template.resolve("nested/file.txt"), "nested file".getBytes(StandardCharsets.UTF_8));
+			Resource<Path> secondCopy = new TemporaryDirectory().create(asList("prefix", template.toString()));
+			Assertions.assertThat(secondCopy.get().resolve("file.txt")).hasContent("changed");
+			Assertions.assertThat(secondCopy.get().resolve("nested/file.txt")).hasContent("nested file");
+			secondCopy.close();
+		}
+
+		@DisplayName("and the template has many files, then new temporary directories contain all of them")
+		@Test
+		void andTemplateHasManyFiles_thenNewTempDirsContainAllOfThem(@New(TemporaryDirectory.class) Path template)
+				throws Exception {
+			// more files than copying threads, spread across directories
+			for (int i = 0; i < 50; i++) {
+				Path directory = Files.createDirectories(template.resolve("nested-" + i % 5));
+				Files.write(directory.resolve("file-" + i + ".txt"), ("file " + i).getBytes(StandardCharsets.UTF_8));
+			}
+
+			Resource<Path> copy = new TemporaryDirectory().create(asList("prefix", template.toString()));
+			for (int i = 0; i < 50; i++) {
+				Assertions
+						.assertThat(copy.get().resolve("nested-" + i % 5).resolve("file-" + i + ".txt"))
+						.hasContent("file " + i);
+			}
+			copy.close();
+		}
+
+		@DisplayName("and the template does not exist, then an exception mentioning the template is thrown")
+		@Test
+		void andTemplateDoesNotExist_thenExceptionMentioningTemplateIsThrown() {
+			ExecutionResults executionResults = PioneerTestKit
+					.executeTestClass(NewTempDirWithMissingTemplateTestCases.class);
+			executionResults
+					.allEvents()
+					.assertThatEvents()
+					.haveExactly(//
+						1, //
+						finished(//
+							throwable(//
+								instanceOf(ParameterResolutionException.class), //
+								cause(instanceOf(IllegalArgumentException.class), message(
+									"Template directory `classpath:does/not/exist` could not be found on the classpath")))));
+		}
+
+	}
+
+	static class TwoTestMethodsWithNewTempDirFromTemplateTestCases {
+
+		static List<Path> recordedPaths = new CopyOnWriteArrayList<>();
+
+		@Test
+		void firstTest(@New(value = TemporaryDirectory.class, arguments = { "prefix",
+				"classpath:" + TEMPLATE_RESOURCE }) Path tempDir) throws Exception {
+			assertThat(tempDir).startsWith(ROOT_TEMP_DIR).isReadable().isWritable();
+			Assertions.assertThat(tempDir.resolve("file.txt")).hasContent("top-level file");
+			Assertions.assertThat(tempDir.resolve("nested/file.txt")).hasContent("nested file");
+			Files.write(tempDir.resolve("file.txt"), "changed".getBytes(StandardCharsets.UTF_8));
+			Files.delete(tempDir.resolve("nested/file.txt"));
+
+			recordedPaths.add(tempDir);
+		}
+
+		@Test
+		void secondTest(@New(value = TemporaryDirectory.class, arguments = { "prefix",
+				"classpath:" + TEMPLATE_RESOURCE }) Path tempDir) throws Exception {
+			assertThat(tempDir).startsWith(ROOT_TEMP_DIR).isReadable().isWritable();
+			Assertions.assertThat(tempDir.resolve("file.txt")).hasContent("top-level file");
+			Assertions.assertThat(tempDir.resolve("nested/file.txt")).hasContent("nested file");
+			Files.write(tempDir.resolve("file.txt"), "changed".getBytes(StandardCharsets.UTF_8));
+			Files.delete(tempDir.resolve("nested/file.txt"));
+
+			recordedPaths.add(tempDir);
+		}
+
+	}
+
+	static class NewTempDirWithMissingTemplateTestCases {
+
+		@Test
+		void theTest(@New(value = TemporaryDirectory.class, arguments = { "prefix",
+				"classpath:does/not/exist" }) Path tempDir) {
 			fail("We should not get this far.");
 		}
 
@@ -11,6 +11,7 @@
 package org.junitpioneer.testkit;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.StreamSupport;
 
 import org.junit.platform.engine.DiscoverySelector;
@@ -34,6 +35,13 @@ public class ExecutionResults {
 		executionResults = getConfiguredJupiterEngine().selectors(DiscoverySelectors.selectClass(testClass)).execute();
 	}
 
+	ExecutionResults(Class<?> testClass, Map<String, String> configurationParameters) {
+		executionResults = getConfiguredJupiterEngine()
+				.configurationParameters(configurationParameters)
+				.selectors(DiscoverySelectors.selectClass(testClass))
+				.execute();
+	}
+
 	ExecutionResults(Iterable<Class<?>> testClasses) {
 		executionResults = getConfiguredJupiterEngine()
 				.selectors(StreamSupport
@@ -14,6 +14,7 @@ import static java.util.Arrays.stream;
 import static java.util.stream.Collectors.joining;
 
 import java.util.List;
+import java.util.Map;
 
 import org.opentest4j.TestAbortedException;
 
@@ -29,6 +30,17 @@ public class PioneerTestKit {
 		return new ExecutionResults(testClass);
 	}
 
+	/**
+	 * Returns the execution results of the given test class, executed with additional configuration parameters.
+	 *
+	 * @param testClass The test class instance
+	 * @param configurationParameters The configuration parameters to pass to the engine
+	 * @return The execution results
+	 */
+	public static ExecutionResults executeTestClass(Class<?> testClass, Map<String, String> configurationParameters) {
+		return new ExecutionResults(testClass, configurationParameters);
+	}
+
 	/**
 	 * Returns the execution results of the given test classes.
 	 *